@@ -0,0 +1,48 @@
+package cl.pokemart.pokemart_backend.config;
+
+import cl.pokemart.pokemart_backend.service.common.CacheRegions;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Capa de cache compartida: cada region es un cache Caffeine (W-TinyLFU) acotado y con TTL propio.
+ * Las regiones se registran en el {@link CacheManager} para que actuator publique sus metricas
+ * (cache.gets, cache.evictions, cache.size...).
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String CATALOG_ADMIN_PRODUCTS = "catalog-admin-products";
+    public static final String CATALOG_ADMIN_OFFERS = "catalog-admin-offers";
+    public static final String ADMIN_USERS = "admin-users";
+    public static final String CATALOG_ENCODED = "catalog-encoded";
+
+    private static final List<String> DEFAULT_REGIONS = List.of(
+            CATALOG_ADMIN_PRODUCTS,
+            CATALOG_ADMIN_OFFERS,
+            ADMIN_USERS,
+            CATALOG_ENCODED
+    );
+
+    @Bean
+    public CacheRegions cacheRegions(CacheProperties properties) {
+        Map<String, CacheProperties.Region> regions = properties.getRegions();
+        DEFAULT_REGIONS.forEach(name -> regions.putIfAbsent(name, new CacheProperties.Region()));
+        return new CacheRegions(regions);
+    }
+
+    @Bean
+    public CacheManager cacheManager(CacheRegions cacheRegions) {
+        CaffeineCacheManager manager = new CaffeineCacheManager();
+        manager.setAllowNullValues(false);
+        // Solo regiones declaradas: un nombre desconocido devuelve null en vez de crear un cache sin limites
+        manager.setCacheNames(List.of());
+        cacheRegions.nativeCaches().forEach(manager::registerCustomCache);
+        return manager;
+    }
+}
@@ -0,0 +1,88 @@
+package cl.pokemart.pokemart_backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheProperties {
+    /**
+     * Regiones de cache por nombre (app.cache.regions.&lt;nombre&gt;.*).
+     */
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    public Map<String, Region> getRegions() {
+        return regions;
+    }
+
+    public void setRegions(Map<String, Region> regions) {
+        this.regions = regions;
+    }
+
+    public static class Region {
+        /**
+         * Tiempo de vida de cada entrada desde que se escribe.
+         */
+        private Duration ttl = Duration.ofSeconds(60);
+        /**
+         * Tiempo adicional que se conserva un valor vencido para servirlo si la recarga falla.
+         */
+        private Duration staleTtl = Duration.ofMinutes(5);
+        /**
+         * Espera maxima de un llamador mientras otro carga la misma clave.
+         */
+        private Duration loadTimeout = Duration.ofSeconds(5);
+        /**
+         * Maximo de entradas; se ignora si se define maximumWeight.
+         */
+        private long maximumSize = 500;
+        /**
+         * Peso maximo de la region. Una entrada pesa el tamaño de la coleccion cacheada (minimo 1).
+         */
+        private Long maximumWeight;
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Duration getStaleTtl() {
+            return staleTtl;
+        }
+
+        public void setStaleTtl(Duration staleTtl) {
+            this.staleTtl = staleTtl;
+        }
+
+        public Duration getLoadTimeout() {
+            return loadTimeout;
+        }
+
+        public void setLoadTimeout(Duration loadTimeout) {
+            this.loadTimeout = loadTimeout;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Long getMaximumWeight() {
+            return maximumWeight;
+        }
+
+        public void setMaximumWeight(Long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+        }
+    }
+}
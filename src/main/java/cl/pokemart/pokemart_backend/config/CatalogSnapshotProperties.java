@@ -0,0 +1,24 @@
+package cl.pokemart.pokemart_backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.catalog.snapshot")
+public class CatalogSnapshotProperties {
+    /**
+     * Edad maxima del snapshot antes de reconstruirlo en segundo plano. Acota cuanto tarda en verse
+     * un cambio que no pasa por CatalogService (stock descontado por ordenes). 0 desactiva.
+     */
+    private Duration maxAge = Duration.ofSeconds(60);
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+}
@@ -522,15 +522,8 @@ public class DataInitializer implements CommandLineRunner {
 
     private void recalcReviewStats() {
         try {
-            List<Product> products = productRepository.findAll();
-            for (Product p : products) {
-                long count = productReviewRepository.countByProductId(p.getId());
-                double avg = productReviewRepository.averageRating(p.getId()).orElse(0.0);
-                p.setReviewCount(count);
-                p.setReviewAvg(avg);
-                productRepository.save(p);
-            }
-            log.info("Sincronizados reviewCount/reviewAvg en productos");
+            int updated = productRepository.reconcileReviewStats();
+            log.info("Sincronizados reviewCount/ratingSum/reviewAvg en {} productos", updated);
         } catch (Exception e) {
             log.warn("No se pudieron sincronizar stats de reviews: {}", e.getMessage());
         }
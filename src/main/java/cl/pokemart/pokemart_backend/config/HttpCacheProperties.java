@@ -0,0 +1,67 @@
+package cl.pokemart.pokemart_backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.http-cache")
+public class HttpCacheProperties {
+    /**
+     * max-age para navegadores; 0 obliga a revalidar con If-None-Match en cada uso.
+     */
+    private Duration maxAge = Duration.ZERO;
+    /**
+     * s-maxage para caches compartidos (CDN).
+     */
+    private Duration sharedMaxAge = Duration.ofSeconds(30);
+    /**
+     * stale-while-revalidate: tiempo que un cache puede servir la copia vencida mientras revalida.
+     */
+    private Duration staleWhileRevalidate = Duration.ofSeconds(30);
+    /**
+     * Sirve el catalogo desde bytes precalculados (JSON y gzip) en vez de serializar en cada peticion.
+     */
+    private boolean encodedResponses = true;
+
+    public CacheControl publicPolicy() {
+        return CacheControl.maxAge(maxAge)
+                .cachePublic()
+                .sMaxAge(sharedMaxAge)
+                .staleWhileRevalidate(staleWhileRevalidate);
+    }
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public Duration getSharedMaxAge() {
+        return sharedMaxAge;
+    }
+
+    public void setSharedMaxAge(Duration sharedMaxAge) {
+        this.sharedMaxAge = sharedMaxAge;
+    }
+
+    public Duration getStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    public void setStaleWhileRevalidate(Duration staleWhileRevalidate) {
+        this.staleWhileRevalidate = staleWhileRevalidate;
+    }
+
+    public boolean isEncodedResponses() {
+        return encodedResponses;
+    }
+
+    public void setEncodedResponses(boolean encodedResponses) {
+        this.encodedResponses = encodedResponses;
+    }
+}
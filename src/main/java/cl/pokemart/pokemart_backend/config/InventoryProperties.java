@@ -0,0 +1,83 @@
+package cl.pokemart.pokemart_backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.inventory")
+public class InventoryProperties {
+
+    public enum Mode {
+        /**
+         * Cada checkout descuenta {@code products.stock} con un UPDATE condicional.
+         */
+        DATABASE,
+        /**
+         * Contadores por SKU en memoria; los descuentos se escriben en la BD por lotes. Solo para una
+         * unica instancia de la API (los contadores no se comparten entre nodos).
+         */
+        LEDGER
+    }
+
+    private Mode mode = Mode.DATABASE;
+    /**
+     * Cada cuanto el modo LEDGER escribe en {@code products.stock} los descuentos aceptados.
+     */
+    private Duration flushInterval = Duration.ofMillis(500);
+    /**
+     * Cuanto dura el stock apartado al crear una preferencia de pago si el pago no se aprueba antes.
+     */
+    private Duration reservationTtl = Duration.ofMinutes(15);
+    /**
+     * Resolucion de la rueda de vencimientos: una reserva vuelve al producto a lo mas un tick despues
+     * de vencer.
+     */
+    private Duration reservationTick = Duration.ofSeconds(1);
+    /**
+     * Ranuras de la rueda de vencimientos (potencia de 2). Con tick de 1s, 1024 ranuras cubren ~17 minutos
+     * por vuelta, mas que el TTL por defecto.
+     */
+    private int reservationWheelSize = 1024;
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public Duration getReservationTtl() {
+        return reservationTtl;
+    }
+
+    public void setReservationTtl(Duration reservationTtl) {
+        this.reservationTtl = reservationTtl;
+    }
+
+    public Duration getReservationTick() {
+        return reservationTick;
+    }
+
+    public void setReservationTick(Duration reservationTick) {
+        this.reservationTick = reservationTick;
+    }
+
+    public int getReservationWheelSize() {
+        return reservationWheelSize;
+    }
+
+    public void setReservationWheelSize(int reservationWheelSize) {
+        this.reservationWheelSize = reservationWheelSize;
+    }
+}
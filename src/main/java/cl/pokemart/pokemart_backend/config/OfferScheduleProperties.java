@@ -0,0 +1,36 @@
+package cl.pokemart.pokemart_backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "app.catalog.offers")
+public class OfferScheduleProperties {
+    /**
+     * Resolucion de la rueda de inicio/fin de ofertas: una oferta aparece o desaparece del catalogo a
+     * lo mas un tick despues de su startsAt/endsAt.
+     */
+    private Duration tick = Duration.ofSeconds(1);
+    /**
+     * Ranuras de la rueda (potencia de 2). Con tick de 1s, 512 ranuras cubren ~8.5 minutos por vuelta.
+     */
+    private int wheelSize = 512;
+
+    public Duration getTick() {
+        return tick;
+    }
+
+    public void setTick(Duration tick) {
+        this.tick = tick;
+    }
+
+    public int getWheelSize() {
+        return wheelSize;
+    }
+
+    public void setWheelSize(int wheelSize) {
+        this.wheelSize = wheelSize;
+    }
+}
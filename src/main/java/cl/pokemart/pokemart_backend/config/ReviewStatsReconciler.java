@@ -0,0 +1,49 @@
+package cl.pokemart.pokemart_backend.config;
+
+import cl.pokemart.pokemart_backend.repository.catalog.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Paso de migracion: recalcula los contadores de reseñas de los productos desviados (rating_sum,
+ * histograma, promedio). En una BD existente ddl-auto=update agrega esas columnas en 0 aunque el producto
+ * ya tenga reseñas, y la primera reseña nueva publicaria un promedio errado. Como la sentencia recorre todo
+ * el catalogo con subconsultas correlacionadas, al arrancar solo corre con
+ * {@code app.reviews.reconcile-on-startup=true} (antes de atender peticiones y de construir el snapshot):
+ * se activa en el despliegue que agrega las columnas y se apaga despues.
+ */
+@Component
+public class ReviewStatsReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewStatsReconciler.class);
+
+    private final ProductRepository productRepository;
+    private final boolean reconcileOnStartup;
+
+    public ReviewStatsReconciler(ProductRepository productRepository,
+                                 @Value("${app.reviews.reconcile-on-startup:false}") boolean reconcileOnStartup) {
+        this.productRepository = productRepository;
+        this.reconcileOnStartup = reconcileOnStartup;
+    }
+
+    @PostConstruct
+    void reconcileOnStartup() {
+        if (reconcileOnStartup) {
+            reconcile();
+        }
+    }
+
+    public void reconcile() {
+        try {
+            int updated = productRepository.reconcileReviewStats();
+            if (updated > 0) {
+                log.warn("Recalculados los contadores de reseñas de {} productos desviados", updated);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("No se pudieron recalcular los contadores de reseñas al iniciar", ex);
+        }
+    }
+}
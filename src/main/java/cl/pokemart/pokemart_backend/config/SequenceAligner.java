@@ -0,0 +1,113 @@
+package cl.pokemart.pokemart_backend.config;
+
+import cl.pokemart.pokemart_backend.model.common.PooledSequenceGenerator;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.OracleDialect;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifica al arrancar que cada secuencia de {@code @PooledSequence} este por delante de los ids ya
+ * guardados. Las tablas que antes usaban IDENTITY conservan sus filas y ddl-auto=update crea la secuencia
+ * desde 1, asi que el primer bloque de ids chocaria con filas existentes; en Oracle, ademas, una columna
+ * "generated always" rechaza ids explicitos.
+ * <p>
+ * La verificacion es barata (un {@code max(id)} y un {@code nextval} por tabla) y corre siempre: si algo
+ * quedo desalineado el arranque falla con un mensaje claro. La correccion es un paso de migracion:
+ * con {@code app.sequences.align-on-startup=true} quita IDENTITY en Oracle y mueve las secuencias con
+ * {@code alter sequence ... restart} (sin recrearlas, asi no se pierden permisos ni sinonimos). Se activa
+ * en el primer despliegue sobre una BD que venia de IDENTITY y se apaga despues. Corre antes de los
+ * CommandLineRunner (seed) y de atender peticiones.
+ */
+@Component
+public class SequenceAligner {
+
+    private static final Logger log = LoggerFactory.getLogger(SequenceAligner.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean alignOnStartup;
+
+    public SequenceAligner(EntityManagerFactory entityManagerFactory,
+                           JdbcTemplate jdbcTemplate,
+                           @Value("${app.sequences.align-on-startup:false}") boolean alignOnStartup) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.alignOnStartup = alignOnStartup;
+    }
+
+    @PostConstruct
+    void verify() {
+        forEachSequence(alignOnStartup);
+    }
+
+    /**
+     * Corrige las secuencias desalineadas (y las columnas IDENTITY en Oracle).
+     */
+    public void align() {
+        forEachSequence(true);
+    }
+
+    private void forEachSequence(boolean fix) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+        sessionFactory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+            if (persister.getGenerator() instanceof PooledSequenceGenerator generator
+                    && persister instanceof AbstractEntityPersister entity) {
+                check(dialect, entity.getTableName(), entity.getIdentifierColumnNames()[0], generator, fix);
+            }
+        });
+    }
+
+    private void check(Dialect dialect, String table, String idColumn, PooledSequenceGenerator generator,
+                       boolean fix) {
+        if (dialect instanceof OracleDialect && isOracleIdentity(table, idColumn)) {
+            if (!fix) throw misaligned("la columna " + table + "." + idColumn + " sigue siendo IDENTITY");
+            jdbcTemplate.execute("alter table " + table + " modify (" + idColumn + " drop identity)");
+            log.info("Columna {}.{} deja de ser IDENTITY (ids desde secuencia)", table, idColumn);
+        }
+        Long maxId = jdbcTemplate.queryForObject("select max(" + idColumn + ") from " + table, Long.class);
+        if (maxId == null) return;
+
+        SequenceSupport sequences = dialect.getSequenceSupport();
+        String sequence = generator.getDatabaseStructure().getPhysicalName().render();
+        int increment = generator.getOptimizer().getIncrementSize();
+        Long next = jdbcTemplate.queryForObject(sequences.getSequenceNextValString(sequence), Long.class);
+        // El optimizador pooled toma el bloque (next - increment, next]
+        if (next != null && next - increment >= maxId) return;
+        if (!fix) {
+            throw misaligned("la secuencia " + sequence + " (" + next + ") esta detras del max id de "
+                    + table + " (" + maxId + ")");
+        }
+
+        long start = maxId + increment;
+        jdbcTemplate.execute(restartSql(dialect, sequence, start));
+        log.info("Secuencia {} reiniciada en {} (max id de {} = {})", sequence, start, table, maxId);
+    }
+
+    private static IllegalStateException misaligned(String detail) {
+        return new IllegalStateException("Ids desalineados: " + detail + ". Arranca una vez con "
+                + "app.sequences.align-on-startup=true (DB_ALIGN_SEQUENCES=true) para migrar la BD y luego apagalo.");
+    }
+
+    private static String restartSql(Dialect dialect, String sequence, long start) {
+        // Oracle (18c+) usa "restart start with"; H2 y PostgreSQL, "restart with"
+        String restart = dialect instanceof OracleDialect ? " restart start with " : " restart with ";
+        return "alter sequence " + sequence + restart + start;
+    }
+
+    private boolean isOracleIdentity(String table, String idColumn) {
+        Integer identity = jdbcTemplate.queryForObject(
+                "select count(*) from user_tab_identity_cols where table_name = upper(?) and column_name = upper(?)",
+                Integer.class, table, idColumn);
+        return identity != null && identity > 0;
+    }
+}
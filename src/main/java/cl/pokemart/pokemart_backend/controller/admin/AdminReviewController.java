@@ -1,8 +1,10 @@
 package cl.pokemart.pokemart_backend.controller.admin;
 
 import cl.pokemart.pokemart_backend.dto.catalog.AdminReviewResponse;
+import cl.pokemart.pokemart_backend.dto.catalog.ReviewStatsReconcileResponse;
 import cl.pokemart.pokemart_backend.dto.common.ApiErrorExamples;
 import cl.pokemart.pokemart_backend.dto.common.ErrorResponse;
+import cl.pokemart.pokemart_backend.model.user.User;
 import cl.pokemart.pokemart_backend.service.catalog.CatalogService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,9 +15,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
@@ -94,4 +98,22 @@ public class AdminReviewController {
     public void delete(@PathVariable Long id) {
         catalogService.deleteReview(id);
     }
+
+    @Operation(summary = "Reconciliar estadísticas", description = "Recalcula reviewCount, ratingSum y reviewAvg desde las reseñas para los productos desviados, con una sola sentencia.")
+    @ApiResponse(responseCode = "200", description = "Productos corregidos",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ReviewStatsReconcileResponse.class)))
+    @PostMapping("/stats/reconcile")
+    public ReviewStatsReconcileResponse reconcileStats(Authentication auth) {
+        return ReviewStatsReconcileResponse.builder()
+                .productosCorregidos(catalogService.reconcileReviewStats(currentUser(auth)))
+                .build();
+    }
+
+    private User currentUser(Authentication auth) {
+        Object principal = auth != null ? auth.getPrincipal() : null;
+        if (principal instanceof User user) {
+            return user;
+        }
+        return null;
+    }
 }
@@ -1,5 +1,6 @@
 package cl.pokemart.pokemart_backend.controller.blog;
 
+import cl.pokemart.pokemart_backend.controller.common.ConditionalResponses;
 import cl.pokemart.pokemart_backend.dto.blog.BlogResponse;
 import cl.pokemart.pokemart_backend.dto.common.ApiErrorExamples;
 import cl.pokemart.pokemart_backend.dto.common.ErrorResponse;
@@ -11,11 +12,13 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -36,27 +39,33 @@ import java.util.List;
 public class BlogController {
 
     private final BlogService blogService;
+    private final ConditionalResponses conditionalResponses;
 
-    public BlogController(BlogService blogService) {
+    public BlogController(BlogService blogService, ConditionalResponses conditionalResponses) {
         this.blogService = blogService;
+        this.conditionalResponses = conditionalResponses;
     }
 
     @Operation(summary = "Lista blogs", description = "Listado paginado/filtrado de entradas públicas.")
     @ApiResponse(responseCode = "200", description = "Listado de blogs",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = BlogResponse.class)))
+    @ApiResponse(responseCode = "304", description = "Sin cambios respecto al ETag enviado en If-None-Match", content = @Content)
     @GetMapping
-    public List<BlogResponse> list(
+    public ResponseEntity<List<BlogResponse>> list(
             @RequestParam(value = "categoria", required = false) String categoria,
-            @RequestParam(value = "q", required = false) String query
+            @RequestParam(value = "q", required = false) String query,
+            WebRequest request
     ) {
-        return blogService.listPublic(categoria, query);
+        return conditionalResponses.ofVersion(request, blogService.blogVersion(),
+                () -> blogService.listPublic(categoria, query));
     }
 
     @Operation(summary = "Detalle de blog", description = "Devuelve el detalle público de una entrada por su slug.")
     @ApiResponse(responseCode = "200", description = "Entrada encontrada",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = BlogResponse.class)))
+    @ApiResponse(responseCode = "304", description = "Sin cambios respecto al ETag enviado en If-None-Match", content = @Content)
     @GetMapping("/{slug}")
-    public BlogResponse detail(@PathVariable String slug) {
-        return blogService.getPublic(slug);
+    public ResponseEntity<BlogResponse> detail(@PathVariable String slug, WebRequest request) {
+        return conditionalResponses.ofVersion(request, blogService.blogVersion(), () -> blogService.getPublic(slug));
     }
 }
@@ -1,5 +1,6 @@
 package cl.pokemart.pokemart_backend.controller.catalog;
 
+import cl.pokemart.pokemart_backend.controller.common.ConditionalResponses;
 import cl.pokemart.pokemart_backend.dto.catalog.ProductResponse;
 import cl.pokemart.pokemart_backend.dto.common.ApiErrorExamples;
 import cl.pokemart.pokemart_backend.dto.common.ErrorResponse;
@@ -11,9 +12,11 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -34,16 +37,19 @@ import java.util.List;
 public class OfferController {
 
     private final CatalogService catalogService;
+    private final ConditionalResponses conditionalResponses;
 
-    public OfferController(CatalogService catalogService) {
+    public OfferController(CatalogService catalogService, ConditionalResponses conditionalResponses) {
         this.catalogService = catalogService;
+        this.conditionalResponses = conditionalResponses;
     }
 
     @Operation(summary = "Ofertas activas", description = "Lista productos con descuentos vigentes.")
     @ApiResponse(responseCode = "200", description = "Listado de ofertas",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductResponse.class)))
+    @ApiResponse(responseCode = "304", description = "Sin cambios respecto al ETag enviado en If-None-Match", content = @Content)
     @GetMapping
-    public List<ProductResponse> listOffers() {
-        return catalogService.listActiveOffers();
+    public ResponseEntity<List<ProductResponse>> listOffers(WebRequest request) {
+        return conditionalResponses.ofVersion(request, catalogService.catalogVersion(), catalogService::listActiveOffers);
     }
 }
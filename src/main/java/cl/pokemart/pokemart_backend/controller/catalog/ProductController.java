@@ -1,11 +1,19 @@
 package cl.pokemart.pokemart_backend.controller.catalog;
 
+import cl.pokemart.pokemart_backend.controller.common.ConditionalResponses;
+import cl.pokemart.pokemart_backend.dto.catalog.ProductBulkUpdateItem;
+import cl.pokemart.pokemart_backend.dto.catalog.ProductBulkUpdateResponse;
+import cl.pokemart.pokemart_backend.dto.catalog.ProductFacetResponse;
+import cl.pokemart.pokemart_backend.dto.catalog.ProductImportResponse;
+import cl.pokemart.pokemart_backend.dto.catalog.ProductPageResponse;
 import cl.pokemart.pokemart_backend.dto.catalog.ProductRequest;
 import cl.pokemart.pokemart_backend.dto.catalog.ProductResponse;
+import cl.pokemart.pokemart_backend.dto.catalog.ReviewSummaryResponse;
 import cl.pokemart.pokemart_backend.dto.common.ApiErrorExamples;
 import cl.pokemart.pokemart_backend.dto.common.ErrorResponse;
 import cl.pokemart.pokemart_backend.model.user.User;
 import cl.pokemart.pokemart_backend.service.catalog.CatalogService;
+import cl.pokemart.pokemart_backend.service.catalog.ProductImporter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,8 +23,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -24,11 +36,16 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/products")
@@ -63,10 +80,15 @@ import java.util.List;
 })
 public class ProductController {
 
+    private static final String TEXT_CSV = "text/csv";
+    private static final String NDJSON = "application/x-ndjson";
+
     private final CatalogService catalogService;
+    private final ConditionalResponses conditionalResponses;
 
-    public ProductController(CatalogService catalogService) {
+    public ProductController(CatalogService catalogService, ConditionalResponses conditionalResponses) {
         this.catalogService = catalogService;
+        this.conditionalResponses = conditionalResponses;
     }
 
     @Operation(
@@ -75,9 +97,86 @@ public class ProductController {
     )
     @ApiResponse(responseCode = "200", description = "Listado de productos",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductResponse.class)))
+    @ApiResponse(responseCode = "304", description = "Sin cambios respecto al ETag enviado en If-None-Match", content = @Content)
     @GetMapping
-    public List<ProductResponse> list(@RequestParam(value = "category", required = false) String category) {
-        return catalogService.listProducts(category);
+    public ResponseEntity<?> list(@RequestParam(value = "category", required = false) String category,
+                                  WebRequest request) {
+        String key = "products:" + (StringUtils.hasText(category) ? category.toLowerCase() : "all");
+        return conditionalResponses.ofEncoded(request, catalogService.catalogVersion(), key,
+                () -> catalogService.listProducts(category));
+    }
+
+    @Operation(
+            summary = "Lista paginada de productos públicos",
+            description = "Paginación por cursor con orden estable: name, price, price_desc, rating, newest o discount. "
+                    + "Para la página siguiente se envía el nextCursor recibido."
+    )
+    @ApiResponse(responseCode = "200", description = "Página de productos",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductPageResponse.class)))
+    @ApiResponse(responseCode = "304", description = "Sin cambios respecto al ETag enviado en If-None-Match", content = @Content)
+    @GetMapping("/page")
+    public ResponseEntity<ProductPageResponse> page(
+            @Parameter(description = "Orden: name, price, price_desc, rating, newest, discount") @RequestParam(value = "sort", required = false) String sort,
+            @Parameter(description = "Cursor devuelto por la página anterior") @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(description = "Tamaño de página (1-100, por defecto 20)") @RequestParam(value = "size", required = false) Integer size,
+            WebRequest request) {
+        return conditionalResponses.ofVersion(request, catalogService.catalogVersion(),
+                () -> catalogService.listProductsPage(sort, cursor, size));
+    }
+
+    @Operation(
+            summary = "Búsqueda de productos",
+            description = "Busca en nombre, descripción y categoría. Ignora tildes y mayúsculas, acepta prefijos "
+                    + "y un error de tipeo por término. Resultados ordenados por relevancia."
+    )
+    @ApiResponse(responseCode = "200", description = "Productos encontrados",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductResponse.class)))
+    @ApiResponse(responseCode = "304", description = "Sin cambios respecto al ETag enviado en If-None-Match", content = @Content)
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductResponse>> search(
+            @Parameter(description = "Texto a buscar", required = true) @RequestParam("q") String query,
+            @Parameter(description = "Máximo de resultados (1-100, por defecto 20)") @RequestParam(value = "limit", required = false) Integer limit,
+            WebRequest request) {
+        return conditionalResponses.ofVersion(request, catalogService.catalogVersion(),
+                () -> catalogService.searchProducts(query, limit));
+    }
+
+    @Operation(
+            summary = "Filtrado por facetas",
+            description = "Combina categorías, rango de precio, solo en oferta, rating mínimo y solo con stock. "
+                    + "Devuelve los productos y los conteos por faceta."
+    )
+    @ApiResponse(responseCode = "200", description = "Resultado filtrado",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductFacetResponse.class)))
+    @ApiResponse(responseCode = "304", description = "Sin cambios respecto al ETag enviado en If-None-Match", content = @Content)
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacetResponse> facets(
+            @Parameter(description = "Slugs de categoría (se puede repetir)") @RequestParam(value = "category", required = false) Set<String> categories,
+            @Parameter(description = "Precio mínimo") @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
+            @Parameter(description = "Precio máximo") @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice,
+            @Parameter(description = "Solo productos con oferta vigente") @RequestParam(value = "onOffer", defaultValue = "false") boolean onOffer,
+            @Parameter(description = "Rating mínimo (0-5)") @RequestParam(value = "minRating", required = false) Double minRating,
+            @Parameter(description = "Solo productos con stock") @RequestParam(value = "inStock", defaultValue = "false") boolean inStock,
+            @Parameter(description = "Máximo de productos en la respuesta (1-100, por defecto 20)") @RequestParam(value = "limit", required = false) Integer limit,
+            WebRequest request) {
+        return conditionalResponses.ofVersion(request, catalogService.catalogVersion(),
+                () -> catalogService.facetProducts(categories, minPrice, maxPrice, onOffer, minRating, inStock, limit));
+    }
+
+    @Operation(
+            summary = "Resumen de reseñas de varios productos",
+            description = "Total, promedio y distribución por estrellas de hasta 100 productos en una consulta, "
+                    + "para páginas de listado. Omite ids que no están en el catálogo público."
+    )
+    @ApiResponse(responseCode = "200", description = "Resúmenes en el orden pedido",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ReviewSummaryResponse.class)))
+    @ApiResponse(responseCode = "304", description = "Sin cambios respecto al ETag enviado en If-None-Match", content = @Content)
+    @GetMapping("/reviews/summary")
+    public ResponseEntity<List<ReviewSummaryResponse>> reviewSummaries(
+            @Parameter(description = "IDs de producto (separados por coma o repetidos)", required = true) @RequestParam("ids") List<Long> ids,
+            WebRequest request) {
+        return conditionalResponses.ofVersion(request, catalogService.catalogVersion(),
+                () -> catalogService.reviewSummaries(ids));
     }
 
     @Operation(
@@ -86,9 +185,12 @@ public class ProductController {
     )
     @ApiResponse(responseCode = "200", description = "Producto encontrado",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductResponse.class)))
+    @ApiResponse(responseCode = "304", description = "Sin cambios respecto al ETag enviado en If-None-Match", content = @Content)
     @GetMapping("/{id}")
-    public ProductResponse getOne(@Parameter(description = "ID del producto", required = true) @PathVariable Long id) {
-        return catalogService.getProduct(id);
+    public ResponseEntity<ProductResponse> getOne(@Parameter(description = "ID del producto", required = true) @PathVariable Long id,
+                                                  WebRequest request) {
+        return conditionalResponses.ofVersion(request, catalogService.catalogVersion(),
+                () -> catalogService.getProduct(id));
     }
 
     @PreAuthorize("hasAnyRole('ADMIN','VENDEDOR')")
@@ -118,6 +220,38 @@ public class ProductController {
         return catalogService.createProduct(request, currentUser(auth));
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Importación masiva de productos",
+            description = "Recibe un CSV con cabecera (text/csv) o un objeto JSON por línea (application/x-ndjson) "
+                    + "con los campos de ProductRequest. Crea o actualiza por nombre en lotes y entrega el detalle "
+                    + "de las filas rechazadas."
+    )
+    @ApiResponse(responseCode = "200", description = "Resumen de la importación",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductImportResponse.class)))
+    @PostMapping(value = "/import", consumes = {TEXT_CSV, NDJSON})
+    public ProductImportResponse importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                InputStream body,
+                                                Authentication auth) {
+        ProductImporter.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(TEXT_CSV))
+                ? ProductImporter.Format.CSV
+                : ProductImporter.Format.NDJSON;
+        return catalogService.importProducts(body, format, currentUser(auth));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Actualización masiva de precio y stock",
+            description = "Aplica hasta 5000 cambios {id, precio?, stock?, stockBase?} en una transacción. "
+                    + "Con precioEsperado/stockEsperado la fila solo se aplica si el valor actual coincide."
+    )
+    @ApiResponse(responseCode = "200", description = "Resumen de filas aplicadas y rechazadas",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductBulkUpdateResponse.class)))
+    @PatchMapping("/bulk")
+    public ProductBulkUpdateResponse bulkUpdate(@RequestBody List<ProductBulkUpdateItem> items, Authentication auth) {
+        return catalogService.bulkUpdateProducts(items, currentUser(auth));
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Actualizar producto", description = "Modifica un producto existente.")
     @PutMapping("/{id}")
@@ -1,12 +1,16 @@
 package cl.pokemart.pokemart_backend.controller.catalog;
 
+import cl.pokemart.pokemart_backend.controller.common.ConditionalResponses;
+import cl.pokemart.pokemart_backend.dto.catalog.ReviewPageResponse;
 import cl.pokemart.pokemart_backend.dto.catalog.ReviewRequest;
 import cl.pokemart.pokemart_backend.dto.catalog.ReviewResponse;
+import cl.pokemart.pokemart_backend.dto.catalog.ReviewSummaryResponse;
 import cl.pokemart.pokemart_backend.dto.common.ApiErrorExamples;
 import cl.pokemart.pokemart_backend.dto.common.ErrorResponse;
 import cl.pokemart.pokemart_backend.model.user.User;
 import cl.pokemart.pokemart_backend.service.catalog.CatalogService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -14,6 +18,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,7 +26,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -56,9 +63,11 @@ import java.util.List;
 public class ReviewController {
 
     private final CatalogService catalogService;
+    private final ConditionalResponses conditionalResponses;
 
-    public ReviewController(CatalogService catalogService) {
+    public ReviewController(CatalogService catalogService, ConditionalResponses conditionalResponses) {
         this.catalogService = catalogService;
+        this.conditionalResponses = conditionalResponses;
     }
 
     @Operation(summary = "Listar reseñas", description = "Devuelve las reseñas de un producto.")
@@ -69,6 +78,30 @@ public class ReviewController {
         return catalogService.listReviews(productId);
     }
 
+    @Operation(summary = "Listar reseñas paginadas", description = "Devuelve las reseñas de un producto de la más reciente a la más antigua, paginadas por cursor.")
+    @ApiResponse(responseCode = "200", description = "Página de reseñas",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ReviewPageResponse.class)))
+    @ApiResponse(responseCode = "304", description = "Sin cambios respecto al ETag enviado en If-None-Match", content = @Content)
+    @GetMapping("/page")
+    public ResponseEntity<ReviewPageResponse> page(
+            @PathVariable Long productId,
+            @Parameter(description = "Cursor devuelto por la página anterior") @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(description = "Tamaño de página (1-100, por defecto 20)") @RequestParam(value = "size", required = false) Integer size,
+            WebRequest request) {
+        return conditionalResponses.ofVersion(request, catalogService.catalogVersion(),
+                () -> catalogService.listReviewsPage(productId, cursor, size));
+    }
+
+    @Operation(summary = "Resumen de reseñas", description = "Total, promedio y cantidad de reseñas por estrellas, sin listar las reseñas.")
+    @ApiResponse(responseCode = "200", description = "Resumen del producto",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ReviewSummaryResponse.class)))
+    @ApiResponse(responseCode = "304", description = "Sin cambios respecto al ETag enviado en If-None-Match", content = @Content)
+    @GetMapping("/summary")
+    public ResponseEntity<ReviewSummaryResponse> summary(@PathVariable Long productId, WebRequest request) {
+        return conditionalResponses.ofVersion(request, catalogService.catalogVersion(),
+                () -> catalogService.reviewSummary(productId));
+    }
+
     @PreAuthorize("hasAnyRole('CLIENTE','ADMIN','VENDEDOR')")
     @Operation(summary = "Crear reseña", description = "Agrega una reseña a un producto (requiere autenticación).")
     @ApiResponse(responseCode = "200", description = "Reseña creada",
@@ -0,0 +1,71 @@
+package cl.pokemart.pokemart_backend.controller.common;
+
+import cl.pokemart.pokemart_backend.config.HttpCacheProperties;
+import cl.pokemart.pokemart_backend.service.common.ContentVersion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * GET condicionales para las rutas publicas: si el If-None-Match coincide con la version actual se
+ * responde 304 sin ejecutar {@code body} (ni BD ni serializacion).
+ */
+@Component
+public class ConditionalResponses {
+
+    private final HttpCacheProperties properties;
+    private final EncodedResponseCache encodedResponseCache;
+
+    public ConditionalResponses(HttpCacheProperties properties, EncodedResponseCache encodedResponseCache) {
+        this.properties = properties;
+        this.encodedResponseCache = encodedResponseCache;
+    }
+
+    public <T> ResponseEntity<T> ofVersion(WebRequest request, ContentVersion version, Supplier<T> body) {
+        String etag = version.etag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(properties.publicPolicy())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(properties.publicPolicy())
+                .body(body.get());
+    }
+
+    /**
+     * Igual que {@link #ofVersion} pero entrega los bytes ya serializados (y comprimidos segun
+     * Accept-Encoding) guardados bajo {@code key}. Si el modo esta desactivado delega en Jackson.
+     */
+    public ResponseEntity<?> ofEncoded(WebRequest request, ContentVersion version, String key, Supplier<?> body) {
+        if (!properties.isEncodedResponses()) {
+            return ofVersion(request, version, body);
+        }
+        ContentEncoding encoding = ContentEncoding.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = version.etag() + encoding.etagSuffix();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(properties.publicPolicy())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        EncodedResponseCache.EncodedBody encoded = encodedResponseCache.encode(key, body.get());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(properties.publicPolicy())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (encoding.token() != null) {
+            response.header(HttpHeaders.CONTENT_ENCODING, encoding.token());
+        }
+        return response.body(encoded.bytes(encoding));
+    }
+}
@@ -0,0 +1,60 @@
+package cl.pokemart.pokemart_backend.controller.common;
+
+import org.springframework.util.StringUtils;
+
+import java.util.Locale;
+
+/**
+ * Codificaciones que se guardan precalculadas para las respuestas cacheadas. No hay codificador
+ * brotli en el classpath, por lo que un cliente que solo acepte br recibe identity.
+ */
+public enum ContentEncoding {
+    IDENTITY(null),
+    GZIP("gzip");
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Valor para Content-Encoding ({@code null} en identity).
+     */
+    public String token() {
+        return token;
+    }
+
+    /**
+     * Sufijo del ETag: cada representacion codificada necesita su propio ETag fuerte.
+     */
+    public String etagSuffix() {
+        return token == null ? "" : "-" + token;
+    }
+
+    public static ContentEncoding negotiate(String acceptEncoding) {
+        if (!StringUtils.hasText(acceptEncoding)) return IDENTITY;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            if (("gzip".equals(coding) || "*".equals(coding)) && !rejected(tokens)) {
+                return GZIP;
+            }
+        }
+        return IDENTITY;
+    }
+
+    private static boolean rejected(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String param = tokens[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2)) <= 0;
+                } catch (NumberFormatException ex) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,70 @@
+package cl.pokemart.pokemart_backend.controller.common;
+
+import cl.pokemart.pokemart_backend.config.CacheConfig;
+import cl.pokemart.pokemart_backend.service.common.CacheRegion;
+import cl.pokemart.pokemart_backend.service.common.CacheRegions;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bytes finales (JSON identity y gzip) de respuestas cuyo contenido ya esta cacheado en los servicios.
+ * Cada entrada recuerda la instancia de la que se serializo: cuando el servicio invalida, recarga o
+ * parcha su cache entrega una instancia nueva y la entrada se vuelve a codificar, sin puntos de
+ * invalidacion propios.
+ */
+@Component
+public class EncodedResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final CacheRegion<EncodedBody> encodedCache;
+
+    public EncodedResponseCache(ObjectMapper objectMapper, CacheRegions cacheRegions) {
+        this.objectMapper = objectMapper;
+        this.encodedCache = cacheRegions.get(CacheConfig.CATALOG_ENCODED);
+    }
+
+    public EncodedBody encode(String key, Object source) {
+        EncodedBody cached = encodedCache.get(key);
+        if (cached != null && cached.source() == source) {
+            return cached;
+        }
+        EncodedBody encoded = EncodedBody.of(source, serialize(source));
+        encodedCache.put(key, encoded);
+        return encoded;
+    }
+
+    private byte[] serialize(Object source) {
+        try {
+            return objectMapper.writeValueAsBytes(source);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudo serializar la respuesta", ex);
+        }
+    }
+
+    public record EncodedBody(Object source, byte[] identity, byte[] gzip) {
+
+        static EncodedBody of(Object source, byte[] identity) {
+            return new EncodedBody(source, identity, gzip(identity));
+        }
+
+        public byte[] bytes(ContentEncoding encoding) {
+            return encoding == ContentEncoding.GZIP ? gzip : identity;
+        }
+
+        private static byte[] gzip(byte[] data) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(data);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -21,4 +21,6 @@ public class AdminOfferRequest {
     String endsAt; // ISO-8601 (yyyy-MM-dd'T'HH:mm[:ss])
     @Schema(description = "Si la oferta está activa")
     Boolean active;
+    @Schema(description = "Fecha de inicio ISO-8601; sin valor la oferta rige desde ya")
+    String startsAt; // ISO-8601 (yyyy-MM-dd'T'HH:mm[:ss])
 }
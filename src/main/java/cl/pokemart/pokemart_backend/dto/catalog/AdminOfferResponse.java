@@ -17,6 +17,8 @@ public class AdminOfferResponse {
     String productName;
     @Schema(description = "Porcentaje de descuento")
     Integer discountPct;
+    @Schema(description = "Fecha/hora de inicio (ISO-8601)")
+    String startsAt;
     @Schema(description = "Fecha/hora de fin (ISO-8601)")
     String endsAt;
     @Schema(description = "Si está activa")
@@ -32,6 +34,7 @@ public class AdminOfferResponse {
                 .productId(product != null ? product.getId() : null)
                 .productName(product != null ? product.getName() : null)
                 .discountPct(offer.getDiscountPct())
+                .startsAt(offer.getStartsAt() != null ? offer.getStartsAt().toString() : null)
                 .endsAt(offer.getEndsAt() != null ? offer.getEndsAt().toString() : null)
                 .active(offer.getActive())
                 .expired(expired)
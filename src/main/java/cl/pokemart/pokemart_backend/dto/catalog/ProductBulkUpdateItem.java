@@ -0,0 +1,23 @@
+package cl.pokemart.pokemart_backend.dto.catalog;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Value
+@Schema(description = "Cambio de precio/stock de un producto dentro de una actualización masiva")
+public class ProductBulkUpdateItem {
+    @Schema(description = "ID del producto", example = "12")
+    Long id;
+    @Schema(description = "Nuevo precio; sin valor se conserva el actual", example = "1990")
+    BigDecimal precio;
+    @Schema(description = "Nuevo stock; sin valor se conserva el actual", example = "40")
+    Integer stock;
+    @Schema(description = "Nuevo stock base; sin valor se conserva el actual", example = "50")
+    Integer stockBase;
+    @Schema(description = "Precio que el cliente leyó; si el actual es otro la fila se rechaza", example = "1790")
+    BigDecimal precioEsperado;
+    @Schema(description = "Stock que el cliente leyó; si el actual es otro la fila se rechaza", example = "35")
+    Integer stockEsperado;
+}
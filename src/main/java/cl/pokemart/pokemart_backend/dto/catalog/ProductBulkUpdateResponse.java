@@ -0,0 +1,31 @@
+package cl.pokemart.pokemart_backend.dto.catalog;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+@Schema(description = "Resultado de una actualización masiva de precio y stock")
+public class ProductBulkUpdateResponse {
+    @Schema(description = "Filas aplicadas", example = "998")
+    int aplicadas;
+    @Schema(description = "Filas rechazadas", example = "2")
+    int rechazadas;
+    @Schema(description = "Detalle de las filas rechazadas")
+    List<Rejected> rechazos;
+
+    @Value
+    @Builder
+    @Schema(description = "Fila rechazada en una actualización masiva")
+    public static class Rejected {
+        @Schema(description = "Posición de la fila en la solicitud (desde 0)", example = "7")
+        int indice;
+        @Schema(description = "ID del producto", example = "12")
+        Long id;
+        @Schema(description = "Motivo del rechazo", example = "El precio o stock cambió desde la lectura")
+        String motivo;
+    }
+}
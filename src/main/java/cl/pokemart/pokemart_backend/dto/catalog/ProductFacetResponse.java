@@ -0,0 +1,29 @@
+package cl.pokemart.pokemart_backend.dto.catalog;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@Value
+@Builder
+@Schema(description = "Resultado de un filtrado combinado del catálogo con sus conteos por faceta")
+public class ProductFacetResponse {
+    @Schema(description = "Productos que cumplen todos los filtros (hasta el límite pedido), ordenados por id")
+    List<ProductResponse> items;
+    @Schema(description = "Total de productos que cumplen todos los filtros")
+    Integer total;
+    @Schema(description = "Productos por slug de categoría con el resto de filtros aplicados (sin el de categoría)")
+    Map<String, Integer> categorias;
+    @Schema(description = "Resultados que tienen una oferta vigente")
+    Integer enOferta;
+    @Schema(description = "Resultados con stock disponible")
+    Integer conStock;
+    @Schema(description = "Precio mínimo entre los resultados")
+    BigDecimal precioMin;
+    @Schema(description = "Precio máximo entre los resultados")
+    BigDecimal precioMax;
+}
@@ -0,0 +1,33 @@
+package cl.pokemart.pokemart_backend.dto.catalog;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+@Schema(description = "Resultado de una importación masiva de productos")
+public class ProductImportResponse {
+    @Schema(description = "Filas leídas del archivo (sin contar la cabecera)", example = "25000")
+    int procesadas;
+    @Schema(description = "Productos nuevos", example = "24000")
+    int creadas;
+    @Schema(description = "Productos existentes (mismo nombre) actualizados", example = "990")
+    int actualizadas;
+    @Schema(description = "Filas rechazadas", example = "10")
+    int fallidas;
+    @Schema(description = "Detalle de las filas rechazadas (hasta 1000)")
+    List<RowError> errores;
+
+    @Value
+    @Builder
+    @Schema(description = "Fila rechazada en una importación")
+    public static class RowError {
+        @Schema(description = "Número de fila de datos (1 es la primera después de la cabecera)", example = "42")
+        long fila;
+        @Schema(description = "Motivo del rechazo", example = "precio: debe ser un número")
+        String mensaje;
+    }
+}
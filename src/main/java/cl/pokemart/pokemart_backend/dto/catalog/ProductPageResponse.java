@@ -0,0 +1,19 @@
+package cl.pokemart.pokemart_backend.dto.catalog;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+@Schema(description = "Pagina del catálogo público paginado por cursor")
+public class ProductPageResponse {
+    @Schema(description = "Productos de la página, en el orden solicitado")
+    List<ProductResponse> items;
+    @Schema(description = "Orden aplicado (name, price, price_desc, rating, newest, discount)")
+    String sort;
+    @Schema(description = "Cursor para pedir la página siguiente; null si no hay más resultados")
+    String nextCursor;
+}
@@ -7,7 +7,7 @@ import lombok.Value;
 import java.math.BigDecimal;
 
 @Value
-@Builder
+@Builder(toBuilder = true)
 @Schema(description = "Detalle de un producto publicado en el catálogo")
 public class ProductResponse {
     @Schema(description = "Identificador del producto")
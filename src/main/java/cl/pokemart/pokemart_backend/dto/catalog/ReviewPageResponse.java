@@ -0,0 +1,17 @@
+package cl.pokemart.pokemart_backend.dto.catalog;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+@Schema(description = "Pagina de reseñas de un producto, de la más reciente a la más antigua")
+public class ReviewPageResponse {
+    @Schema(description = "Reseñas de la página")
+    List<ReviewResponse> items;
+    @Schema(description = "Cursor para pedir la página siguiente; null si no hay más reseñas")
+    String nextCursor;
+}
@@ -1,6 +1,7 @@
 package cl.pokemart.pokemart_backend.dto.catalog;
 
 import cl.pokemart.pokemart_backend.model.catalog.ProductReview;
+import cl.pokemart.pokemart_backend.repository.catalog.ReviewRow;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.Value;
@@ -29,4 +30,14 @@ public class ReviewResponse {
                 .createdAt(review.getCreatedAt() != null ? review.getCreatedAt().toString() : null)
                 .build();
     }
+
+    public static ReviewResponse from(ReviewRow row) {
+        return ReviewResponse.builder()
+                .id(row.id())
+                .rating(row.rating())
+                .comment(row.comment())
+                .author(row.authorName())
+                .createdAt(row.createdAt() != null ? row.createdAt().toString() : null)
+                .build();
+    }
 }
@@ -0,0 +1,13 @@
+package cl.pokemart.pokemart_backend.dto.catalog;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+@Schema(description = "Resultado de la reconciliación de estadísticas de reseñas")
+public class ReviewStatsReconcileResponse {
+    @Schema(description = "Productos cuyos contadores no coincidían con sus reseñas y fueron corregidos", example = "3")
+    int productosCorregidos;
+}
@@ -0,0 +1,42 @@
+package cl.pokemart.pokemart_backend.dto.catalog;
+
+import cl.pokemart.pokemart_backend.repository.catalog.ReviewStatsRow;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Value
+@Builder
+@Schema(description = "Resumen de reseñas de un producto: total, promedio y distribución por estrellas")
+public class ReviewSummaryResponse {
+    @Schema(description = "ID del producto")
+    Long productoId;
+    @Schema(description = "Cantidad total de reseñas", example = "12")
+    long total;
+    @Schema(description = "Rating promedio", example = "4.25")
+    double promedio;
+    @Schema(description = "Cantidad de reseñas por estrellas (1 a 5)", example = "{\"1\":0,\"2\":1,\"3\":1,\"4\":4,\"5\":6}")
+    Map<Integer, Long> estrellas;
+
+    public static ReviewSummaryResponse from(ReviewStatsRow stats) {
+        Map<Integer, Long> stars = new LinkedHashMap<>();
+        stars.put(1, orZero(stats.ratingCount1()));
+        stars.put(2, orZero(stats.ratingCount2()));
+        stars.put(3, orZero(stats.ratingCount3()));
+        stars.put(4, orZero(stats.ratingCount4()));
+        stars.put(5, orZero(stats.ratingCount5()));
+        return ReviewSummaryResponse.builder()
+                .productoId(stats.productId())
+                .total(orZero(stats.reviewCount()))
+                .promedio(stats.reviewAvg() != null ? stats.reviewAvg() : 0.0)
+                .estrellas(stars)
+                .build();
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
+    }
+}
@@ -1,6 +1,8 @@
 package cl.pokemart.pokemart_backend.model.blog;
 
+import cl.pokemart.pokemart_backend.model.common.PooledSequence;
 import jakarta.persistence.*;
+import jakarta.persistence.Index;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -15,11 +17,13 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "blog_posts")
+@Table(name = "blog_posts", indexes = {
+        @Index(name = "idx_blog_status_published", columnList = "status, published_at")
+})
 public class BlogPost {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("blog_posts_seq")
     private Long id;
 
     @Column(nullable = false, unique = true, length = 180)
@@ -1,13 +1,14 @@
 package cl.pokemart.pokemart_backend.model.catalog;
 
+import cl.pokemart.pokemart_backend.model.common.PooledSequence;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -22,16 +23,27 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "categories")
+@Table(name = "categories", indexes = {
+        @Index(name = "idx_categories_slug_ci", columnList = "slug_ci")
+})
 public class Category {
 
+    // ProductImporter y ProductBulkUpdater insertan por JDBC tomando ids de la misma secuencia (PooledIdAllocator)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("categories_seq")
     private Long id;
 
     @Column(nullable = false, unique = true, length = 120)
     private String slug;
 
+    /**
+     * upper(slug) calculado por la BD (columna virtual); respalda la busqueda de categoria sin distinguir mayusculas.
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "slug_ci", length = 120, insertable = false, updatable = false,
+            columnDefinition = "varchar(120) generated always as (upper(slug))")
+    private String slugKey;
+
     @Column(nullable = false, length = 200)
     private String name;
 
@@ -1,11 +1,11 @@
 package cl.pokemart.pokemart_backend.model.catalog;
 
+import cl.pokemart.pokemart_backend.model.common.PooledSequence;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -13,6 +13,7 @@ import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -29,11 +30,14 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_category", columnList = "category_id")
+})
 public class Product {
 
+    // ProductImporter y ProductBulkUpdater insertan por JDBC tomando ids de la misma secuencia (PooledIdAllocator)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("products_seq")
     private Long id;
 
     @Column(nullable = false, length = 200)
@@ -57,6 +61,36 @@ public class Product {
     @Column(name = "review_avg", nullable = false)
     private Double reviewAvg;
 
+    /**
+     * Suma de ratings de las reseñas; junto con reviewCount permite actualizar el promedio con un delta.
+     */
+    @ColumnDefault("0")
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum;
+
+    /**
+     * Histograma de reseñas por estrellas (1 a 5), mantenido con el mismo delta que reviewCount.
+     */
+    @ColumnDefault("0")
+    @Column(name = "rating_count_1", nullable = false)
+    private Long ratingCount1;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_count_2", nullable = false)
+    private Long ratingCount2;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_count_3", nullable = false)
+    private Long ratingCount3;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_count_4", nullable = false)
+    private Long ratingCount4;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_count_5", nullable = false)
+    private Long ratingCount5;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
@@ -82,6 +116,12 @@ public class Product {
         this.updatedAt = now;
         if (this.reviewCount == null) this.reviewCount = 0L;
         if (this.reviewAvg == null) this.reviewAvg = 0.0;
+        if (this.ratingSum == null) this.ratingSum = 0L;
+        if (this.ratingCount1 == null) this.ratingCount1 = 0L;
+        if (this.ratingCount2 == null) this.ratingCount2 = 0L;
+        if (this.ratingCount3 == null) this.ratingCount3 = 0L;
+        if (this.ratingCount4 == null) this.ratingCount4 = 0L;
+        if (this.ratingCount5 == null) this.ratingCount5 = 0L;
     }
 
     @PreUpdate
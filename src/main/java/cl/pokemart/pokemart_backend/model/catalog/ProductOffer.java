@@ -1,11 +1,11 @@
 package cl.pokemart.pokemart_backend.model.catalog;
 
+import cl.pokemart.pokemart_backend.model.common.PooledSequence;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -24,11 +24,15 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "product_offers")
+@Table(name = "product_offers", indexes = {
+        // findActive / findWithUpcomingBoundary: ofertas activas por fecha de fin
+        @Index(name = "idx_offers_active_ends", columnList = "active, ends_at, product_id"),
+        @Index(name = "idx_offers_product", columnList = "product_id")
+})
 public class ProductOffer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("product_offers_seq")
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -38,6 +42,9 @@ public class ProductOffer {
     @Column(nullable = false)
     private Integer discountPct;
 
+    @Column(name = "starts_at")
+    private LocalDateTime startsAt;
+
     @Column(name = "ends_at")
     private LocalDateTime endsAt;
 
@@ -53,6 +60,15 @@ public class ProductOffer {
         this.createdAt = LocalDateTime.now();
     }
 
+    /**
+     * Vigente en {@code now}: activa, ya comenzada y aun no terminada.
+     */
+    public boolean isLive(LocalDateTime now) {
+        if (!Boolean.TRUE.equals(active)) return false;
+        if (startsAt != null && now.isBefore(startsAt)) return false;
+        return endsAt == null || now.isBefore(endsAt);
+    }
+
     public boolean isExpired() {
         if (!Boolean.TRUE.equals(active)) return true;
         if (endsAt == null) return false;
@@ -1,12 +1,12 @@
 package cl.pokemart.pokemart_backend.model.catalog;
 
+import cl.pokemart.pokemart_backend.model.common.PooledSequence;
 import cl.pokemart.pokemart_backend.model.user.User;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -25,11 +25,16 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "product_reviews")
+@Table(name = "product_reviews", indexes = {
+        // Keyset de las reseñas publicas: (product_id, created_at, id)
+        @Index(name = "idx_reviews_product_created", columnList = "product_id, created_at, id"),
+        // Listado admin de reseñas, de la mas reciente a la mas antigua
+        @Index(name = "idx_reviews_created", columnList = "created_at")
+})
 public class ProductReview {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("product_reviews_seq")
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -1,10 +1,9 @@
 package cl.pokemart.pokemart_backend.model.catalog;
 
+import cl.pokemart.pokemart_backend.model.common.PooledSequence;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
@@ -28,8 +27,9 @@ import java.time.LocalDateTime;
 @Table(name = "product_stock_base")
 public class ProductStockBase {
 
+    // ProductImporter y ProductBulkUpdater insertan por JDBC tomando ids de la misma secuencia (PooledIdAllocator)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("product_stock_base_seq")
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,24 @@
+package cl.pokemart.pokemart_backend.model.common;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Id generado desde una secuencia con optimizador pooled: Hibernate reserva un bloque de ids por cada
+ * llamada a la secuencia (tamaño en {@link PooledSequenceGenerator#ALLOCATION_SIZE}), lo que evita un
+ * round trip por INSERT y permite agrupar los INSERT en JDBC batch (con IDENTITY Hibernate no puede).
+ */
+@IdGeneratorType(PooledSequenceGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PooledSequence {
+
+    /**
+     * Nombre de la secuencia en la BD.
+     */
+    String value();
+}
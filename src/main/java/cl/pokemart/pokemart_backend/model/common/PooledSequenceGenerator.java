@@ -0,0 +1,48 @@
+package cl.pokemart.pokemart_backend.model.common;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.generator.AnnotationBasedGenerator;
+import org.hibernate.generator.GeneratorCreationContext;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.lang.reflect.Member;
+import java.util.Properties;
+
+/**
+ * Generador de {@link PooledSequence}. El tamaño de bloque se lee de la propiedad de Hibernate
+ * {@value #ALLOCATION_SIZE} ({@code spring.jpa.properties.pokemart.id.allocation-size}) y se usa como
+ * INCREMENT BY al crear la secuencia; con una secuencia ya existente manda su incremento real
+ * ({@code hibernate.id.sequence.increment_size_mismatch_strategy=fix}).
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator implements AnnotationBasedGenerator<PooledSequence> {
+
+    public static final String ALLOCATION_SIZE = "pokemart.id.allocation-size";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    private String sequenceName;
+
+    // Hibernate lo instancia a traves del contenedor de Spring: constructor sin argumentos + initialize
+    @Override
+    public void initialize(PooledSequence config, Member member, GeneratorCreationContext context) {
+        this.sequenceName = config.value();
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        int allocationSize = serviceRegistry.requireService(ConfigurationService.class)
+                .getSetting(ALLOCATION_SIZE, StandardConverters.INTEGER, DEFAULT_ALLOCATION_SIZE);
+        parameters.put(SEQUENCE_PARAM, sequenceName);
+        parameters.put(OptimizableGenerator.INCREMENT_PARAM, String.valueOf(Math.max(1, allocationSize)));
+        parameters.put(OptimizableGenerator.INITIAL_PARAM, "1");
+        super.configure(type, parameters, serviceRegistry);
+    }
+
+    public String getSequenceName() {
+        return sequenceName;
+    }
+}
@@ -1,5 +1,6 @@
 package cl.pokemart.pokemart_backend.model.order;
 
+import cl.pokemart.pokemart_backend.model.common.PooledSequence;
 import cl.pokemart.pokemart_backend.model.user.User;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
@@ -7,9 +8,8 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -33,11 +33,14 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "ordenes")
+@Table(name = "ordenes", indexes = {
+        @Index(name = "idx_ordenes_creado", columnList = "creado_en"),
+        @Index(name = "idx_ordenes_cliente", columnList = "cliente_id")
+})
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("ordenes_seq")
     private Long id;
 
     @Column(name = "numero_orden", unique = true, length = 40)
@@ -1,12 +1,12 @@
 package cl.pokemart.pokemart_backend.model.order;
 
+import cl.pokemart.pokemart_backend.model.common.PooledSequence;
 import cl.pokemart.pokemart_backend.model.catalog.Product;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -24,11 +24,15 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "items_orden")
+@Table(name = "items_orden", indexes = {
+        @Index(name = "idx_items_orden_orden", columnList = "orden_id"),
+        @Index(name = "idx_items_orden_producto", columnList = "producto_id"),
+        @Index(name = "idx_items_orden_stock_pendiente", columnList = "stock_pendiente")
+})
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("items_orden_seq")
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -50,4 +54,11 @@ public class OrderItem {
 
     @Column(name = "total_linea", nullable = false, precision = 14, scale = 2)
     private BigDecimal totalLinea;
+
+    /**
+     * {@code true} mientras la cantidad no se haya descontado de {@code products.stock} (modo LEDGER);
+     * {@code null} una vez aplicada, asi el indice solo guarda las pendientes.
+     */
+    @Column(name = "stock_pendiente")
+    private Boolean stockPendiente;
 }
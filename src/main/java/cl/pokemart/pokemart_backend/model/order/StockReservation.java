@@ -0,0 +1,63 @@
+package cl.pokemart.pokemart_backend.model.order;
+
+import cl.pokemart.pokemart_backend.model.catalog.Product;
+import cl.pokemart.pokemart_backend.model.common.PooledSequence;
+import cl.pokemart.pokemart_backend.model.payment.PaymentIntent;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock apartado al crear la preferencia de pago. La cantidad ya esta descontada de {@code products.stock};
+ * al aprobarse el pago la orden consume la reserva y, si vence antes, se devuelve al producto.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "stock_reservations", indexes = {
+        @Index(name = "idx_reservations_intent", columnList = "payment_intent_id")
+})
+public class StockReservation {
+
+    @Id
+    @PooledSequence("stock_reservations_seq")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "payment_intent_id", nullable = false)
+    private PaymentIntent paymentIntent;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
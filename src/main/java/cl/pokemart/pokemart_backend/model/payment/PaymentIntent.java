@@ -1,5 +1,6 @@
 package cl.pokemart.pokemart_backend.model.payment;
 
+import cl.pokemart.pokemart_backend.model.common.PooledSequence;
 import cl.pokemart.pokemart_backend.model.user.User;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -16,11 +17,13 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "payment_intents")
+@Table(name = "payment_intents", indexes = {
+        @Index(name = "idx_payment_intents_status", columnList = "status")
+})
 public class PaymentIntent {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("payment_intents_seq")
     private Long id;
 
     @Column(name = "preference_id", unique = true, length = 80)
@@ -1,18 +1,19 @@
 package cl.pokemart.pokemart_backend.model.user;
 
+import cl.pokemart.pokemart_backend.model.common.PooledSequence;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Lob;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -33,11 +34,15 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        // Busquedas sin distinguir mayusculas (login, registro): indice sobre upper() via columna virtual
+        @Index(name = "idx_users_email_ci", columnList = "email_ci"),
+        @Index(name = "idx_users_username_ci", columnList = "username_ci")
+})
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("users_seq")
     private Long id;
 
     @Column(nullable = false, unique = true, length = 120)
@@ -46,6 +51,22 @@ public class User implements UserDetails {
     @Column(nullable = false, unique = true, length = 60)
     private String username;
 
+    /**
+     * upper(email) calculado por la BD (columna virtual); solo se usa para buscar por email con indice.
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "email_ci", length = 120, insertable = false, updatable = false,
+            columnDefinition = "varchar(120) generated always as (upper(email))")
+    private String emailKey;
+
+    /**
+     * upper(username) calculado por la BD (columna virtual).
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "username_ci", length = 60, insertable = false, updatable = false,
+            columnDefinition = "varchar(60) generated always as (upper(username))")
+    private String usernameKey;
+
     @Column(nullable = false)
     private String password;
 
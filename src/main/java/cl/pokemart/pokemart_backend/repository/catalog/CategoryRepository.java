@@ -2,10 +2,16 @@ package cl.pokemart.pokemart_backend.repository.catalog;
 
 import cl.pokemart.pokemart_backend.model.catalog.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
-    Optional<Category> findBySlugIgnoreCase(String slug);
-    boolean existsBySlugIgnoreCase(String slug);
+    // slug_ci = upper(slug) es una columna virtual con indice
+    @Query("select c from Category c where c.slugKey = upper(:slug)")
+    Optional<Category> findBySlugIgnoreCase(@Param("slug") String slug);
+
+    @Query("select count(c) > 0 from Category c where c.slugKey = upper(:slug)")
+    boolean existsBySlugIgnoreCase(@Param("slug") String slug);
 }
@@ -6,11 +6,27 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ProductOfferRepository extends JpaRepository<ProductOffer, Long> {
-    @Query("select o from ProductOffer o join fetch o.product p where o.active = true and (o.endsAt is null or o.endsAt > :now) and p.active = true")
+    @Query("select o from ProductOffer o join fetch o.product p where o.active = true "
+            + "and (o.startsAt is null or o.startsAt <= :now) and (o.endsAt is null or o.endsAt > :now) and p.active = true")
     List<ProductOffer> findActive(LocalDateTime now);
 
+    /**
+     * Ofertas vigentes solo de los productos indicados (los de un carrito), en una consulta.
+     */
+    @Query("select o from ProductOffer o join fetch o.product p where o.active = true and p.id in :productIds "
+            + "and (o.startsAt is null or o.startsAt <= :now) and (o.endsAt is null or o.endsAt > :now) and p.active = true")
+    List<ProductOffer> findActiveForProducts(LocalDateTime now, Collection<Long> productIds);
+
+    /**
+     * Ofertas activas con un inicio o fin aun por ocurrir, para programarlas en la rueda.
+     */
+    @Query("select o from ProductOffer o join fetch o.product p where o.active = true "
+            + "and (o.startsAt > :now or o.endsAt > :now)")
+    List<ProductOffer> findWithUpcomingBoundary(LocalDateTime now);
+
     List<ProductOffer> findByProduct(Product product);
 }
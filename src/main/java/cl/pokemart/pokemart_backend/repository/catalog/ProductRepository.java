@@ -2,25 +2,103 @@ package cl.pokemart.pokemart_backend.repository.catalog;
 
 import cl.pokemart.pokemart_backend.model.catalog.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import jakarta.persistence.LockModeType;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    String ROW_SELECT = "select new cl.pokemart.pokemart_backend.repository.catalog.ProductRow("
+            + "p.id, p.name, p.description, p.price, p.stock, p.imageUrl, p.reviewCount, p.reviewAvg, p.active, c.name, c.slug, sb.stockBase, p.createdAt) "
+            + "from Product p left join p.category c left join ProductStockBase sb on sb.product = p ";
+
     @Query("select p from Product p where p.active = true")
     List<Product> findAllActive();
 
-    @Query("select p from Product p where p.active = true and lower(p.category.slug) = lower(:slug)")
+    @Query("select p from Product p where p.active = true and p.category.slugKey = upper(:slug)")
     List<Product> findActiveByCategory(@Param("slug") String slug);
 
     @Query("select p from Product p where p.id = :id and p.active = true")
     Optional<Product> findActiveById(@Param("id") Long id);
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("select p from Product p where p.id = :id and p.active = true")
-    Optional<Product> findActiveByIdForUpdate(@Param("id") Long id);
+    @Query(ROW_SELECT + "where p.active = true order by p.id")
+    List<ProductRow> findActiveRows();
+
+    @Query(ROW_SELECT + "where p.active = true and c.slugKey = upper(:slug) order by p.id")
+    List<ProductRow> findActiveRowsByCategory(@Param("slug") String slug);
+
+    @Query(ROW_SELECT + "order by p.id")
+    List<ProductRow> findAllRows();
+
+    @Query(ROW_SELECT + "where p.active = true and p.id in :ids")
+    List<ProductRow> findActiveRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(ROW_SELECT + "where p.id = :id and p.active = true")
+    Optional<ProductRow> findActiveRowById(@Param("id") Long id);
+
+    @Query(ROW_SELECT + "where p.id = :id")
+    Optional<ProductRow> findRowById(@Param("id") Long id);
+
+    String REVIEW_STATS_SELECT = "select new cl.pokemart.pokemart_backend.repository.catalog.ReviewStatsRow("
+            + "p.id, p.reviewCount, p.ratingSum, p.reviewAvg, "
+            + "p.ratingCount1, p.ratingCount2, p.ratingCount3, p.ratingCount4, p.ratingCount5) from Product p ";
+
+    /**
+     * Aplica el alta ({@code countDelta} = 1) o la baja (-1) de una reseña de {@code rating} estrellas
+     * sobre los contadores y el histograma del producto en una sola sentencia; el promedio se deriva
+     * de los valores nuevos.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update Product p
+            set p.reviewCount = p.reviewCount + :countDelta,
+                p.ratingSum = p.ratingSum + :rating * :countDelta,
+                p.ratingCount1 = p.ratingCount1 + case when :rating = 1 then :countDelta else 0 end,
+                p.ratingCount2 = p.ratingCount2 + case when :rating = 2 then :countDelta else 0 end,
+                p.ratingCount3 = p.ratingCount3 + case when :rating = 3 then :countDelta else 0 end,
+                p.ratingCount4 = p.ratingCount4 + case when :rating = 4 then :countDelta else 0 end,
+                p.ratingCount5 = p.ratingCount5 + case when :rating = 5 then :countDelta else 0 end,
+                p.reviewAvg = case when p.reviewCount + :countDelta > 0
+                    then cast(p.ratingSum + :rating * :countDelta as double) / (p.reviewCount + :countDelta)
+                    else 0.0 end
+            where p.id = :id
+            """)
+    int applyReviewDelta(@Param("id") Long id, @Param("rating") long rating, @Param("countDelta") long countDelta);
+
+    @Query(REVIEW_STATS_SELECT + "where p.id = :id")
+    Optional<ReviewStatsRow> findReviewStats(@Param("id") Long id);
+
+    @Query(REVIEW_STATS_SELECT + "where p.id in :ids")
+    List<ReviewStatsRow> findReviewStatsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Recalcula desde product_reviews los contadores e histograma de los productos que se desviaron (o
+     * que aun no los tienen). Una sola sentencia para todo el catalogo; devuelve los productos corregidos.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Product p
+            set p.reviewCount = (select count(r) from ProductReview r where r.product = p),
+                p.ratingSum = (select coalesce(sum(r.rating), 0) from ProductReview r where r.product = p),
+                p.ratingCount1 = (select count(r) from ProductReview r where r.product = p and r.rating = 1),
+                p.ratingCount2 = (select count(r) from ProductReview r where r.product = p and r.rating = 2),
+                p.ratingCount3 = (select count(r) from ProductReview r where r.product = p and r.rating = 3),
+                p.ratingCount4 = (select count(r) from ProductReview r where r.product = p and r.rating = 4),
+                p.ratingCount5 = (select count(r) from ProductReview r where r.product = p and r.rating = 5),
+                p.reviewAvg = (select coalesce(avg(r.rating), 0.0) from ProductReview r where r.product = p)
+            where p.reviewCount <> (select count(r) from ProductReview r where r.product = p)
+               or p.ratingSum <> (select coalesce(sum(r.rating), 0) from ProductReview r where r.product = p)
+               or p.ratingCount1 <> (select count(r) from ProductReview r where r.product = p and r.rating = 1)
+               or p.ratingCount2 <> (select count(r) from ProductReview r where r.product = p and r.rating = 2)
+               or p.ratingCount3 <> (select count(r) from ProductReview r where r.product = p and r.rating = 3)
+               or p.ratingCount4 <> (select count(r) from ProductReview r where r.product = p and r.rating = 4)
+               or p.ratingCount5 <> (select count(r) from ProductReview r where r.product = p and r.rating = 5)
+               or abs(p.reviewAvg - (select coalesce(avg(r.rating), 0.0) from ProductReview r where r.product = p)) > 1e-9
+            """)
+    int reconcileReviewStats();
 }
@@ -1,18 +1,34 @@
 package cl.pokemart.pokemart_backend.repository.catalog;
 
 import cl.pokemart.pokemart_backend.model.catalog.ProductReview;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface ProductReviewRepository extends JpaRepository<ProductReview, Long> {
-    @Query("select r from ProductReview r join fetch r.product p left join fetch p.category c left join fetch r.user u where p.id = :productId order by r.createdAt desc")
-    List<ProductReview> findByProductId(@Param("productId") Long productId);
+    String ROW_SELECT = "select new cl.pokemart.pokemart_backend.repository.catalog.ReviewRow("
+            + "r.id, r.rating, r.comment, r.authorName, r.createdAt) from ProductReview r ";
+
+    @Query(ROW_SELECT + "where r.product.id = :productId order by r.createdAt desc, r.id desc")
+    List<ReviewRow> findRowsByProductId(@Param("productId") Long productId, Limit limit);
+
+    /**
+     * Reseñas anteriores a (createdAt, id), recorriendo el indice (product_id, created_at, id).
+     */
+    @Query(ROW_SELECT + "where r.product.id = :productId "
+            + "and (r.createdAt < :createdAt or (r.createdAt = :createdAt and r.id < :id)) "
+            + "order by r.createdAt desc, r.id desc")
+    List<ReviewRow> findRowsByProductIdBefore(@Param("productId") Long productId,
+                                              @Param("createdAt") LocalDateTime createdAt,
+                                              @Param("id") Long id,
+                                              Limit limit);
 
     @Query("select r from ProductReview r join fetch r.product p left join fetch p.category c left join fetch r.user u order by r.createdAt desc")
     List<ProductReview> findAllWithProduct();
@@ -0,0 +1,25 @@
+package cl.pokemart.pokemart_backend.repository.catalog;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Proyeccion plana de un producto con su categoria y stock base, lista para armar
+ * un {@code ProductResponse} sin navegar relaciones lazy.
+ */
+public record ProductRow(
+        Long id,
+        String name,
+        String description,
+        BigDecimal price,
+        Integer stock,
+        String imageUrl,
+        Long reviewCount,
+        Double reviewAvg,
+        Boolean active,
+        String categoryName,
+        String categorySlug,
+        Integer stockBase,
+        LocalDateTime createdAt
+) {
+}
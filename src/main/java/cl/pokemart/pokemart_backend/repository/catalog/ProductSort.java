@@ -0,0 +1,50 @@
+package cl.pokemart.pokemart_backend.repository.catalog;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Ordenes estables del listado paginado. Todos desempatan por id en la misma direccion, de modo que
+ * (valor, id) identifica una posicion unica para el cursor. Se resuelven sobre el snapshot del catalogo,
+ * que precalcula el orden de cada uno.
+ */
+public enum ProductSort {
+    NAME(false),
+    PRICE(false),
+    PRICE_DESC(true),
+    RATING(true),
+    NEWEST(true),
+    /**
+     * Mayor descuento de las ofertas vigentes; los productos sin oferta cuentan como 0.
+     */
+    DISCOUNT(true);
+
+    private final boolean descending;
+
+    ProductSort(boolean descending) {
+        this.descending = descending;
+    }
+
+    public boolean descending() {
+        return descending;
+    }
+
+    public static ProductSort from(String value) {
+        if (value == null || value.isBlank()) return NAME;
+        return ProductSort.valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Valor de orden leido de un cursor.
+     */
+    public Object parseValue(String raw) {
+        return switch (this) {
+            case NAME -> raw;
+            case PRICE, PRICE_DESC -> new BigDecimal(raw);
+            case RATING -> Double.valueOf(raw);
+            case NEWEST -> LocalDateTime.parse(raw);
+            case DISCOUNT -> Integer.valueOf(raw);
+        };
+    }
+}
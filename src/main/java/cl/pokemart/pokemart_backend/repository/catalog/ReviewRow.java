@@ -0,0 +1,16 @@
+package cl.pokemart.pokemart_backend.repository.catalog;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyeccion de una reseña publica: solo las columnas de {@code ReviewResponse}, sin cargar
+ * producto, categoria ni usuario.
+ */
+public record ReviewRow(
+        Long id,
+        Integer rating,
+        String comment,
+        String authorName,
+        LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,18 @@
+package cl.pokemart.pokemart_backend.repository.catalog;
+
+/**
+ * Contadores de reseñas de un producto tal como estan en la BD: total, suma, promedio e histograma
+ * por estrellas.
+ */
+public record ReviewStatsRow(
+        Long productId,
+        Long reviewCount,
+        Long ratingSum,
+        Double reviewAvg,
+        Long ratingCount1,
+        Long ratingCount2,
+        Long ratingCount3,
+        Long ratingCount4,
+        Long ratingCount5
+) {
+}
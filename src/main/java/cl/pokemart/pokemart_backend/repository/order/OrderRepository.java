@@ -15,7 +15,5 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @EntityGraph(attributePaths = {"items", "items.producto", "cliente"})
     Optional<Order> findWithItemsById(Long id);
 
-    Optional<Order> findTopByOrderByIdDesc();
-
     List<Order> findByCliente(User cliente);
 }
@@ -0,0 +1,16 @@
+package cl.pokemart.pokemart_backend.repository.order;
+
+import cl.pokemart.pokemart_backend.model.order.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    /**
+     * Id de cada intencion de pago con reservas vigentes y su vencimiento mas proximo.
+     */
+    @Query("select r.paymentIntent.id, min(r.expiresAt) from StockReservation r group by r.paymentIntent.id")
+    List<Object[]> findExpiryByIntent();
+}
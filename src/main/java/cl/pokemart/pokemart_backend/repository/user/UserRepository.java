@@ -3,15 +3,24 @@ package cl.pokemart.pokemart_backend.repository.user;
 import cl.pokemart.pokemart_backend.model.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 import java.util.List;
 
 public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmailIgnoreCase(String email);
-    Optional<User> findByUsernameIgnoreCase(String username);
-    boolean existsByEmailIgnoreCase(String email);
-    boolean existsByUsernameIgnoreCase(String username);
+    // Las comparaciones sin mayusculas van contra las columnas virtuales email_ci/username_ci, que tienen indice
+    @Query("select u from User u where u.emailKey = upper(:email)")
+    Optional<User> findByEmailIgnoreCase(@Param("email") String email);
+
+    @Query("select u from User u where u.usernameKey = upper(:username)")
+    Optional<User> findByUsernameIgnoreCase(@Param("username") String username);
+
+    @Query("select count(u) > 0 from User u where u.emailKey = upper(:email)")
+    boolean existsByEmailIgnoreCase(@Param("email") String email);
+
+    @Query("select count(u) > 0 from User u where u.usernameKey = upper(:username)")
+    boolean existsByUsernameIgnoreCase(@Param("username") String username);
 
     @Query("select u from User u left join fetch u.profile")
     List<User> findAllWithProfile();
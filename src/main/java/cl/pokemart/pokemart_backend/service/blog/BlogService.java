@@ -6,6 +6,7 @@ import cl.pokemart.pokemart_backend.dto.blog.BlogResponse;
 import cl.pokemart.pokemart_backend.model.blog.BlogPost;
 import cl.pokemart.pokemart_backend.model.blog.BlogStatus;
 import cl.pokemart.pokemart_backend.repository.blog.BlogPostRepository;
+import cl.pokemart.pokemart_backend.service.common.ContentVersion;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
@@ -25,11 +26,19 @@ import java.util.stream.Collectors;
 public class BlogService {
 
     private final BlogPostRepository blogPostRepository;
+    private final ContentVersion blogVersion = new ContentVersion("blog");
 
     public BlogService(BlogPostRepository blogPostRepository) {
         this.blogPostRepository = blogPostRepository;
     }
 
+    /**
+     * Version de las entradas publicas; cambia tras cada alta, edicion, cambio de estado o borrado.
+     */
+    public ContentVersion blogVersion() {
+        return blogVersion;
+    }
+
     public List<BlogResponse> listPublic(String category, String query) {
         String cat = normalize(category);
         String q = normalize(query);
@@ -60,6 +69,7 @@ public class BlogService {
         entity.setSlug(buildUniqueSlug(request.getTitulo()));
         applyStatus(entity, parseStatusOptional(request.getEstado()));
         blogPostRepository.save(entity);
+        blogVersion.bump();
         return toAdminResponse(entity);
     }
 
@@ -72,6 +82,7 @@ public class BlogService {
         }
         applyStatus(entity, parseStatusOptional(request.getEstado()));
         blogPostRepository.save(entity);
+        blogVersion.bump();
         return toAdminResponse(entity);
     }
 
@@ -80,6 +91,7 @@ public class BlogService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Blog no encontrado"));
         applyStatus(entity, status);
         blogPostRepository.save(entity);
+        blogVersion.bump();
         return toAdminResponse(entity);
     }
 
@@ -88,6 +100,7 @@ public class BlogService {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Blog no encontrado");
         }
         blogPostRepository.deleteById(id);
+        blogVersion.bump();
     }
 
     private void mapRequestToEntity(BlogRequest request, BlogPost entity) {
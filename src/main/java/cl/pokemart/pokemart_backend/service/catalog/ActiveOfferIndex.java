@@ -0,0 +1,66 @@
+package cl.pokemart.pokemart_backend.service.catalog;
+
+import cl.pokemart.pokemart_backend.model.catalog.ProductOffer;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Indice de ofertas vigentes por producto, construido una sola vez a partir de
+ * {@code ProductOfferRepository.findActive}. Si un producto tiene varias ofertas
+ * vigentes se queda con la de mayor descuento (empate: la de menor id).
+ */
+public final class ActiveOfferIndex {
+
+    private static final ActiveOfferIndex EMPTY = new ActiveOfferIndex(Map.of());
+
+    static final Comparator<ProductOffer> BEST_OFFER = Comparator
+            .comparingInt((ProductOffer o) -> o.getDiscountPct() != null ? o.getDiscountPct() : 0)
+            .reversed()
+            .thenComparing(ProductOffer::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final Map<Long, ProductOffer> byProductId;
+
+    private ActiveOfferIndex(Map<Long, ProductOffer> byProductId) {
+        this.byProductId = byProductId;
+    }
+
+    public static ActiveOfferIndex empty() {
+        return EMPTY;
+    }
+
+    public static ActiveOfferIndex of(List<ProductOffer> offers) {
+        if (offers == null || offers.isEmpty()) return EMPTY;
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ProductOffer> index = new LinkedHashMap<>();
+        for (ProductOffer offer : offers) {
+            if (offer == null || offer.getProduct() == null || offer.getProduct().getId() == null) continue;
+            if (!offer.isLive(now)) continue;
+            index.merge(offer.getProduct().getId(), offer,
+                    (current, candidate) -> BEST_OFFER.compare(candidate, current) < 0 ? candidate : current);
+        }
+        return new ActiveOfferIndex(Collections.unmodifiableMap(index));
+    }
+
+    public Optional<ProductOffer> find(Long productId) {
+        if (productId == null) return Optional.empty();
+        return Optional.ofNullable(byProductId.get(productId));
+    }
+
+    /**
+     * Mejor oferta vigente de cada producto, en el orden en que llegaron desde la BD.
+     */
+    public Collection<ProductOffer> bestOffers() {
+        return byProductId.values();
+    }
+
+    public int size() {
+        return byProductId.size();
+    }
+}
@@ -0,0 +1,204 @@
+package cl.pokemart.pokemart_backend.service.catalog;
+
+import cl.pokemart.pokemart_backend.dto.catalog.ProductResponse;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Snapshot columnar e inmutable del catalogo publico para filtros combinados. Cada producto ocupa una
+ * posicion fija; precio (en centavos), stock y rating viven en arreglos primitivos y las categorias y
+ * flags (en oferta, con stock) en bitsets, asi un filtro es un AND de bitsets mas un recorrido lineal
+ * de arreglos, sin BD ni objetos intermedios.
+ */
+public final class CatalogColumns {
+
+    private final ProductResponse[] items;
+    private final String[] slugs;
+    private final long[] priceCents;
+    private final int[] stock;
+    private final double[] rating;
+    private final BitSet onOffer;
+    private final BitSet inStock;
+    private final Map<String, BitSet> byCategory;
+
+    private CatalogColumns(ProductResponse[] items, String[] slugs, long[] priceCents, int[] stock, double[] rating,
+                           BitSet onOffer, BitSet inStock, Map<String, BitSet> byCategory) {
+        this.items = items;
+        this.slugs = slugs;
+        this.priceCents = priceCents;
+        this.stock = stock;
+        this.rating = rating;
+        this.onOffer = onOffer;
+        this.inStock = inStock;
+        this.byCategory = Collections.unmodifiableMap(byCategory);
+    }
+
+    /**
+     * @param source        listado publico completo (orden por id) del que se arma el snapshot
+     * @param categorySlugs slug en minusculas de la categoria de cada posicion de {@code source} (null sin
+     *                      categoria); dos categorias con el mismo nombre visible no se mezclan
+     */
+    public static CatalogColumns of(List<ProductResponse> source, List<String> categorySlugs) {
+        int n = source.size();
+        CatalogColumns columns = new CatalogColumns(source.toArray(new ProductResponse[0]), new String[n],
+                new long[n], new int[n], new double[n], new BitSet(n), new BitSet(n), new LinkedHashMap<>());
+        Map<String, BitSet> categories = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            columns.fill(i, columns.items[i], categorySlugs.get(i));
+            String slug = columns.slugs[i];
+            if (slug != null) categories.computeIfAbsent(slug, c -> new BitSet(n)).set(i);
+        }
+        return columns.withCategories(categories);
+    }
+
+    /**
+     * Columnas de {@code source} reutilizando las de esta instancia. {@code previous[i]} es la posicion
+     * anterior del producto i, o -1 si es nuevo o cambio; solo esas posiciones se recalculan (con el slug
+     * de {@code slugAt}). Si ningun producto cambia de posicion se clonan los arreglos y solo se copian
+     * los bitsets de las categorias tocadas.
+     */
+    CatalogColumns patch(List<ProductResponse> source, int[] previous, IntFunction<String> slugAt) {
+        int n = source.size();
+        ProductResponse[] nextItems = source.toArray(new ProductResponse[0]);
+        boolean sameLayout = n == items.length;
+        for (int i = 0; sameLayout && i < n; i++) {
+            sameLayout = previous[i] < 0 || previous[i] == i;
+        }
+        if (sameLayout) {
+            CatalogColumns columns = new CatalogColumns(nextItems, slugs.clone(), priceCents.clone(), stock.clone(),
+                    rating.clone(), (BitSet) onOffer.clone(), (BitSet) inStock.clone(), new LinkedHashMap<>());
+            Map<String, BitSet> categories = new LinkedHashMap<>(byCategory);
+            Set<String> copied = new HashSet<>();
+            for (int i = 0; i < n; i++) {
+                if (previous[i] >= 0) continue;
+                String before = slugs[i];
+                if (before != null && copied.add(before)) categories.put(before, (BitSet) categories.get(before).clone());
+                if (before != null) categories.get(before).clear(i);
+                columns.fill(i, nextItems[i], slugAt.apply(i));
+                String after = columns.slugs[i];
+                if (after == null) continue;
+                if (copied.add(after)) {
+                    BitSet bits = categories.get(after);
+                    categories.put(after, bits != null ? (BitSet) bits.clone() : new BitSet(n));
+                }
+                categories.get(after).set(i);
+            }
+            categories.values().removeIf(BitSet::isEmpty);
+            return columns.withCategories(categories);
+        }
+        CatalogColumns columns = new CatalogColumns(nextItems, new String[n], new long[n], new int[n], new double[n],
+                new BitSet(n), new BitSet(n), new LinkedHashMap<>());
+        Map<String, BitSet> categories = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            int j = previous[i];
+            if (j < 0) {
+                columns.fill(i, nextItems[i], slugAt.apply(i));
+            } else {
+                columns.slugs[i] = slugs[j];
+                columns.priceCents[i] = priceCents[j];
+                columns.stock[i] = stock[j];
+                columns.rating[i] = rating[j];
+                columns.onOffer.set(i, onOffer.get(j));
+                columns.inStock.set(i, inStock.get(j));
+            }
+            String slug = columns.slugs[i];
+            if (slug != null) categories.computeIfAbsent(slug, c -> new BitSet(n)).set(i);
+        }
+        return columns.withCategories(categories);
+    }
+
+    public Result query(Filter filter) {
+        int n = items.length;
+        BitSet matches = new BitSet(n);
+        matches.set(0, n);
+        if (filter.onOfferOnly()) matches.and(onOffer);
+        if (filter.inStockOnly()) matches.and(inStock);
+
+        long minCents = filter.minPrice() != null ? toCents(filter.minPrice()) : Long.MIN_VALUE;
+        long maxCents = filter.maxPrice() != null ? toCents(filter.maxPrice()) : Long.MAX_VALUE;
+        double minRating = filter.minRating() != null ? filter.minRating() : Double.NEGATIVE_INFINITY;
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            if (priceCents[i] < minCents || priceCents[i] > maxCents || rating[i] < minRating) {
+                matches.clear(i);
+            }
+        }
+
+        // Conteo por categoria sin aplicar el propio filtro de categoria (facetas disyuntivas)
+        Map<String, Integer> categoryCounts = new LinkedHashMap<>();
+        byCategory.forEach((slug, bits) -> {
+            BitSet and = (BitSet) bits.clone();
+            and.and(matches);
+            categoryCounts.put(slug, and.cardinality());
+        });
+
+        Set<String> categories = filter.categories();
+        if (categories != null && !categories.isEmpty()) {
+            BitSet any = new BitSet(n);
+            for (String slug : categories) {
+                BitSet bits = byCategory.get(slug.toLowerCase(Locale.ROOT));
+                if (bits != null) any.or(bits);
+            }
+            matches.and(any);
+        }
+
+        List<ProductResponse> page = new ArrayList<>(Math.min(filter.limit(), matches.cardinality()));
+        long minFound = Long.MAX_VALUE;
+        long maxFound = Long.MIN_VALUE;
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            if (page.size() < filter.limit()) page.add(items[i]);
+            minFound = Math.min(minFound, priceCents[i]);
+            maxFound = Math.max(maxFound, priceCents[i]);
+        }
+        BitSet offerHits = (BitSet) matches.clone();
+        offerHits.and(onOffer);
+        BitSet stockHits = (BitSet) matches.clone();
+        stockHits.and(inStock);
+        boolean empty = matches.isEmpty();
+        return new Result(
+                List.copyOf(page),
+                matches.cardinality(),
+                categoryCounts,
+                offerHits.cardinality(),
+                stockHits.cardinality(),
+                empty ? null : fromCents(minFound),
+                empty ? null : fromCents(maxFound));
+    }
+
+    private void fill(int i, ProductResponse item, String slug) {
+        slugs[i] = slug;
+        priceCents[i] = toCents(item.getPrecio());
+        stock[i] = item.getStock() != null ? item.getStock() : 0;
+        rating[i] = item.getReviewAvg() != null ? item.getReviewAvg() : 0.0;
+        onOffer.set(i, item.getOffer() != null);
+        inStock.set(i, stock[i] > 0);
+    }
+
+    private CatalogColumns withCategories(Map<String, BitSet> categories) {
+        return new CatalogColumns(items, slugs, priceCents, stock, rating, onOffer, inStock, categories);
+    }
+
+    private static long toCents(BigDecimal value) {
+        return value == null ? 0L : value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    public record Filter(Set<String> categories, BigDecimal minPrice, BigDecimal maxPrice,
+                         boolean onOfferOnly, Double minRating, boolean inStockOnly, int limit) {}
+
+    public record Result(List<ProductResponse> items, int total, Map<String, Integer> categoryCounts,
+                         int onOfferCount, int inStockCount, BigDecimal minPrice, BigDecimal maxPrice) {}
+}
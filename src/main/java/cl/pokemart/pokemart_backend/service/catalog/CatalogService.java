@@ -1,12 +1,20 @@
 package cl.pokemart.pokemart_backend.service.catalog;
 
+import cl.pokemart.pokemart_backend.config.CacheConfig;
 import cl.pokemart.pokemart_backend.dto.catalog.AdminOfferRequest;
 import cl.pokemart.pokemart_backend.dto.catalog.AdminOfferResponse;
 import cl.pokemart.pokemart_backend.dto.catalog.AdminReviewResponse;
+import cl.pokemart.pokemart_backend.dto.catalog.ProductBulkUpdateItem;
+import cl.pokemart.pokemart_backend.dto.catalog.ProductBulkUpdateResponse;
+import cl.pokemart.pokemart_backend.dto.catalog.ProductFacetResponse;
+import cl.pokemart.pokemart_backend.dto.catalog.ProductImportResponse;
+import cl.pokemart.pokemart_backend.dto.catalog.ProductPageResponse;
 import cl.pokemart.pokemart_backend.dto.catalog.ProductRequest;
 import cl.pokemart.pokemart_backend.dto.catalog.ProductResponse;
+import cl.pokemart.pokemart_backend.dto.catalog.ReviewPageResponse;
 import cl.pokemart.pokemart_backend.dto.catalog.ReviewRequest;
 import cl.pokemart.pokemart_backend.dto.catalog.ReviewResponse;
+import cl.pokemart.pokemart_backend.dto.catalog.ReviewSummaryResponse;
 import cl.pokemart.pokemart_backend.model.catalog.Category;
 import cl.pokemart.pokemart_backend.model.catalog.Product;
 import cl.pokemart.pokemart_backend.model.catalog.ProductOffer;
@@ -18,21 +26,40 @@ import cl.pokemart.pokemart_backend.repository.catalog.CategoryRepository;
 import cl.pokemart.pokemart_backend.repository.catalog.ProductOfferRepository;
 import cl.pokemart.pokemart_backend.repository.catalog.ProductRepository;
 import cl.pokemart.pokemart_backend.repository.catalog.ProductReviewRepository;
+import cl.pokemart.pokemart_backend.repository.catalog.ProductRow;
+import cl.pokemart.pokemart_backend.repository.catalog.ProductSort;
 import cl.pokemart.pokemart_backend.repository.catalog.ProductStockBaseRepository;
+import cl.pokemart.pokemart_backend.repository.catalog.ReviewRow;
+import cl.pokemart.pokemart_backend.repository.catalog.ReviewStatsRow;
 import cl.pokemart.pokemart_backend.repository.order.OrderItemRepository;
+import cl.pokemart.pokemart_backend.service.common.CacheRegion;
+import cl.pokemart.pokemart_backend.service.common.CacheRegions;
+import cl.pokemart.pokemart_backend.service.common.ContentVersion;
 import cl.pokemart.pokemart_backend.service.common.FileStorageService;
+import cl.pokemart.pokemart_backend.service.common.TransactionCallbacks;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 @Service
@@ -47,10 +74,18 @@ public class CatalogService {
     private final ProductReviewRepository productReviewRepository;
     private final FileStorageService fileStorageService;
 
-    private static final long CACHE_TTL_MS = 60_000; // 60s
-    private final ConcurrentHashMap<String, CacheEntry<List<ProductResponse>>> productsCache = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, CacheEntry<List<ProductResponse>>> adminProductsCache = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, CacheEntry<List<AdminOfferResponse>>> adminOffersCache = new ConcurrentHashMap<>();
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final CacheRegion<List<ProductResponse>> adminProductsCache;
+    private final CacheRegion<List<AdminOfferResponse>> adminOffersCache;
+    private final CatalogSnapshotStore snapshots;
+    private final OfferScheduler offerScheduler;
+    private final ProductImporter productImporter;
+    private final ProductBulkUpdater bulkUpdater;
+    private final ApplicationEventPublisher publisher;
+    private final ContentVersion catalogVersion;
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
 
     public CatalogService(CategoryRepository categoryRepository,
                           ProductRepository productRepository,
@@ -58,7 +93,13 @@ public class CatalogService {
                           ProductStockBaseRepository productStockBaseRepository,
                           OrderItemRepository orderItemRepository,
                           ProductReviewRepository productReviewRepository,
-                          FileStorageService fileStorageService) {
+                          FileStorageService fileStorageService,
+                          CacheRegions cacheRegions,
+                          CatalogSnapshotStore snapshots,
+                          OfferScheduler offerScheduler,
+                          ProductImporter productImporter,
+                          ProductBulkUpdater bulkUpdater,
+                          ApplicationEventPublisher publisher) {
         this.categoryRepository = categoryRepository;
         this.productRepository = productRepository;
         this.productOfferRepository = productOfferRepository;
@@ -66,53 +107,173 @@ public class CatalogService {
         this.orderItemRepository = orderItemRepository;
         this.productReviewRepository = productReviewRepository;
         this.fileStorageService = fileStorageService;
-    }
-
-    // Public catalog
-    @Transactional(readOnly = true)
+        this.adminProductsCache = cacheRegions.get(CacheConfig.CATALOG_ADMIN_PRODUCTS);
+        this.adminOffersCache = cacheRegions.get(CacheConfig.CATALOG_ADMIN_OFFERS);
+        this.snapshots = snapshots;
+        this.catalogVersion = snapshots.version();
+        this.offerScheduler = offerScheduler;
+        this.productImporter = productImporter;
+        this.bulkUpdater = bulkUpdater;
+        this.publisher = publisher;
+    }
+
+    /**
+     * Version del catalogo publico (productos, ofertas y reseñas agregadas); cambia tras cada commit que los
+     * modifica y con cada snapshot publicado, incluida la reconstruccion periodica.
+     */
+    public ContentVersion catalogVersion() {
+        return catalogVersion;
+    }
+
+    // Public catalog: se sirve completo desde el snapshot inmutable, sin abrir transaccion ni tocar la BD
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<ProductResponse> listProducts(String categorySlug) {
-        String cacheKey = StringUtils.hasText(categorySlug) ? "cat:" + categorySlug.toLowerCase() : "all";
-        List<ProductResponse> cached = getCache(cacheKey);
-        if (cached != null) return cached;
-
-        List<Product> products = StringUtils.hasText(categorySlug)
-                ? productRepository.findActiveByCategory(categorySlug)
-                : productRepository.findAllActive();
-        var offers = productOfferRepository.findActive(LocalDateTime.now());
-        List<ProductResponse> response = products.stream()
-                .map(p -> mapToResponse(p, findOfferForProduct(p, offers), null))
-                .toList();
-        putCache(cacheKey, response);
-        return response;
+        CatalogSnapshot snapshot = snapshots.current();
+        return StringUtils.hasText(categorySlug) ? snapshot.products(categorySlug.trim()) : snapshot.products();
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<ProductResponse> listActiveOffers() {
-        var offers = productOfferRepository.findActive(LocalDateTime.now());
-        Map<Long, Integer> stockBaseMap = loadStockBase(offers);
-        return offers.stream()
-                .filter(o -> o.getProduct() != null && Boolean.TRUE.equals(o.getProduct().getActive()))
-                .map(o -> mapToResponse(o.getProduct(), Optional.of(o), null, stockBaseMap))
+        return snapshots.current().offers();
+    }
+
+    /**
+     * Listado público paginado por cursor. {@code cursor} es el nextCursor de la página anterior
+     * (null para la primera).
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public ProductPageResponse listProductsPage(String sortParam, String cursor, Integer size) {
+        ProductSort sort = parseSort(sortParam);
+        int limit = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        ProductCursor after = StringUtils.hasText(cursor) ? ProductCursor.decode(cursor, sort) : null;
+
+        CatalogSnapshot.Page page = snapshots.current().page(sort,
+                after != null ? after.value() : null,
+                after != null ? after.id() : null,
+                limit);
+        ProductCursor next = null;
+        if (page.hasMore()) {
+            ProductResponse last = page.items().get(page.items().size() - 1);
+            next = new ProductCursor(sort, page.lastValue(), last.getId());
+        }
+        return ProductPageResponse.builder()
+                .items(page.items())
+                .sort(sort.name().toLowerCase())
+                .nextCursor(next != null ? next.encode() : null)
+                .build();
+    }
+
+    /**
+     * Busqueda de texto sobre nombre, descripcion y categoria de los productos activos.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<ProductResponse> searchProducts(String query, Integer limit) {
+        if (!StringUtils.hasText(query)) return List.of();
+        CatalogSnapshot snapshot = snapshots.current();
+        searchIndex.ensureBuilt(snapshot::rows);
+        int max = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return searchIndex.search(query, max).stream()
+                .map(snapshot::product)
+                .flatMap(Optional::stream)
                 .toList();
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Filtrado combinado (categorias, rango de precio, en oferta, rating minimo, con stock) sobre las
+     * columnas del snapshot vigente, que se arman junto con cada generacion.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public ProductFacetResponse facetProducts(Set<String> categories, BigDecimal minPrice, BigDecimal maxPrice,
+                                              boolean onOffer, Double minRating, boolean inStock, Integer limit) {
+        int max = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        CatalogColumns.Result result = snapshots.current().columns().query(new CatalogColumns.Filter(
+                categories, minPrice, maxPrice, onOffer, minRating, inStock, max));
+        return ProductFacetResponse.builder()
+                .items(result.items())
+                .total(result.total())
+                .categorias(result.categoryCounts())
+                .enOferta(result.onOfferCount())
+                .conStock(result.inStockCount())
+                .precioMin(result.minPrice())
+                .precioMax(result.maxPrice())
+                .build();
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public ProductResponse getProduct(Long id) {
-        Product product = productRepository.findActiveById(id)
+        return snapshots.current().product(id)
                 .orElseThrow(() -> new EntityNotFoundException("Producto no encontrado"));
-        var offers = productOfferRepository.findActive(LocalDateTime.now());
-        return mapToResponse(product, findOfferForProduct(product, offers), null);
     }
 
     @Transactional(readOnly = true)
     public List<ReviewResponse> listReviews(Long productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new EntityNotFoundException("Producto no encontrado"));
-        return productReviewRepository.findByProductId(product.getId()).stream()
+        ensurePublicProduct(productId);
+        return productReviewRepository.findRowsByProductId(productId, Limit.unlimited()).stream()
                 .map(ReviewResponse::from)
                 .toList();
     }
 
+    /**
+     * Total, promedio y distribucion por estrellas de un producto, leidos de los contadores que
+     * mantiene cada alta/baja de reseña (una lectura por PK, sin recorrer reseñas).
+     */
+    @Transactional(readOnly = true)
+    public ReviewSummaryResponse reviewSummary(Long productId) {
+        ensurePublicProduct(productId);
+        return productRepository.findReviewStats(productId)
+                .map(ReviewSummaryResponse::from)
+                .orElseThrow(() -> new EntityNotFoundException("Producto no encontrado"));
+    }
+
+    /**
+     * Resumenes de varios productos en una consulta, en el orden pedido; omite ids que no estan en el
+     * catalogo publico.
+     */
+    @Transactional(readOnly = true)
+    public List<ReviewSummaryResponse> reviewSummaries(List<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) return List.of();
+        if (productIds.size() > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Maximo " + MAX_PAGE_SIZE + " productos por consulta");
+        }
+        CatalogSnapshot snapshot = snapshots.current();
+        List<Long> ids = productIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .filter(id -> snapshot.product(id).isPresent())
+                .toList();
+        if (ids.isEmpty()) return List.of();
+        Map<Long, ReviewStatsRow> stats = productRepository.findReviewStatsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ReviewStatsRow::productId, Function.identity()));
+        return ids.stream()
+                .map(stats::get)
+                .filter(Objects::nonNull)
+                .map(ReviewSummaryResponse::from)
+                .toList();
+    }
+
+    /**
+     * Reseñas publicas de la mas reciente a la mas antigua, paginadas por cursor (createdAt, id).
+     */
+    @Transactional(readOnly = true)
+    public ReviewPageResponse listReviewsPage(Long productId, String cursor, Integer size) {
+        ensurePublicProduct(productId);
+        int limit = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        ReviewCursor after = StringUtils.hasText(cursor) ? ReviewCursor.decode(cursor) : null;
+        List<ReviewRow> rows = after == null
+                ? productReviewRepository.findRowsByProductId(productId, Limit.of(limit + 1))
+                : productReviewRepository.findRowsByProductIdBefore(productId, after.createdAt(), after.id(), Limit.of(limit + 1));
+        List<ReviewRow> page = rows.size() > limit ? rows.subList(0, limit) : rows;
+        String next = null;
+        if (rows.size() > limit) {
+            ReviewRow last = page.get(page.size() - 1);
+            next = new ReviewCursor(last.createdAt(), last.id()).encode();
+        }
+        return ReviewPageResponse.builder()
+                .items(page.stream().map(ReviewResponse::from).toList())
+                .nextCursor(next)
+                .build();
+    }
+
     @Transactional(readOnly = true)
     public List<AdminReviewResponse> listReviewsAdmin() {
         return productReviewRepository.findAllWithProduct().stream()
@@ -146,8 +307,7 @@ public class CatalogService {
                 .authorName(current.getDisplayName())
                 .build();
         ProductReview saved = productReviewRepository.save(review);
-        updateReviewStats(product.getId());
-        invalidateProductsCache();
+        applyReviewDelta(product.getId(), ratingOf(saved), 1);
         return ReviewResponse.from(saved);
     }
 
@@ -156,44 +316,33 @@ public class CatalogService {
     public List<ProductResponse> listProductsForManagement(boolean includeInactive, User current) {
         ensureManager(current);
         String cacheKey = "admin:prod:" + (includeInactive ? "all" : "active");
-        List<ProductResponse> cached = getAdminProductsCache(cacheKey);
-        if (cached != null) return cached;
-
-        List<Product> products = includeInactive ? productRepository.findAll() : productRepository.findAllActive();
-        var offers = productOfferRepository.findActive(LocalDateTime.now());
-        Map<Long, Integer> stockBaseMap = loadStockBaseForProducts(products);
-        List<ProductResponse> result = products.stream()
-                .map(p -> mapToResponse(p, findOfferForProduct(p, offers), null, stockBaseMap))
-                .toList();
-        putAdminProductsCache(cacheKey, result);
-        return result;
+        return adminProductsCache.getOrLoad(cacheKey, () -> {
+            List<ProductRow> rows = includeInactive ? productRepository.findAllRows() : productRepository.findActiveRows();
+            return assemble(rows, loadActiveOffers());
+        });
     }
 
     @Transactional(readOnly = true)
     public ProductResponse getProductForManagement(Long id, User current) {
         ensureManager(current);
-        Product product = productRepository.findById(id)
+        ProductRow row = productRepository.findRowById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Producto no encontrado"));
-        var offers = productOfferRepository.findActive(LocalDateTime.now());
-        return mapToResponse(product, findOfferForProduct(product, offers), null);
+        return mapToResponse(row, loadActiveOffers().find(row.id()));
     }
 
     @Transactional(readOnly = true)
     public List<AdminOfferResponse> listOffersForManagement(boolean includeInactive, User current) {
         ensureManager(current);
         String cacheKey = "admin:offers:" + (includeInactive ? "all" : "active");
-        List<AdminOfferResponse> cached = getAdminOffersCache(cacheKey);
-        if (cached != null) return cached;
-
-        List<ProductOffer> offers = includeInactive
-                ? productOfferRepository.findAll()
-                : productOfferRepository.findActive(LocalDateTime.now());
-        List<AdminOfferResponse> result = offers.stream()
-                .filter(o -> isOfferVisibleForUser(o, current))
-                .map(AdminOfferResponse::from)
-                .toList();
-        putAdminOffersCache(cacheKey, result);
-        return result;
+        return adminOffersCache.getOrLoad(cacheKey, () -> {
+            List<ProductOffer> offers = includeInactive
+                    ? productOfferRepository.findAll()
+                    : productOfferRepository.findActive(LocalDateTime.now());
+            return offers.stream()
+                    .filter(o -> isOfferVisibleForUser(o, current))
+                    .map(AdminOfferResponse::from)
+                    .toList();
+        });
     }
 
     @Transactional(readOnly = true)
@@ -224,8 +373,29 @@ public class CatalogService {
 
         Product saved = productRepository.save(product);
         ensureStockBase(saved, request.getStockBase());
-        invalidateProductsCache();
-        return mapToResponse(saved, Optional.empty(), null);
+        invalidateProduct(saved.getId());
+        ProductRow row = loadRow(saved.getId());
+        reindex(row);
+        return mapToResponse(row, Optional.empty());
+    }
+
+    /**
+     * Importacion masiva desde CSV o NDJSON. Cada lote se confirma en su propia transaccion; al terminar
+     * se publica un snapshot nuevo y se invalidan caches e indice de busqueda una sola vez.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ProductImportResponse importProducts(InputStream body, ProductImporter.Format format, User current) {
+        ensureAdmin(current);
+        ProductImportResponse report = productImporter.importProducts(body, format);
+        if (report.getCreadas() + report.getActualizadas() > 0) {
+            snapshots.refresh();
+            searchIndex.invalidate();
+            adminProductsCache.clear();
+            adminOffersCache.clear();
+            catalogVersion.bump();
+            publisher.publishEvent(new ProductsChangedEvent(Set.of()));
+        }
+        return report;
     }
 
     public ProductResponse updateProduct(Long id, ProductRequest request, User current) {
@@ -252,8 +422,34 @@ public class CatalogService {
             fileStorageService.deleteByUrl(previousImageUrl);
         }
 
-        invalidateProductsCache();
-        return mapToResponse(product, findOfferForProduct(product, productOfferRepository.findActive(LocalDateTime.now())), null);
+        invalidateProduct(product.getId());
+        ProductRow row = loadRow(product.getId());
+        reindex(row);
+        return mapToResponse(row, loadActiveOffers().find(product.getId()));
+    }
+
+    /**
+     * Cambios masivos de precio/stock en una sola transaccion, con una unica invalidacion al confirmar.
+     * Las filas invalidas o cuyo valor esperado ya no coincide se rechazan sin afectar al resto.
+     */
+    public ProductBulkUpdateResponse bulkUpdateProducts(List<ProductBulkUpdateItem> items, User current) {
+        ensureAdmin(current);
+        if (items == null || items.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "La lista de cambios esta vacia");
+        }
+        if (items.size() > ProductBulkUpdater.MAX_ITEMS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Maximo " + ProductBulkUpdater.MAX_ITEMS + " productos por solicitud");
+        }
+        ProductBulkUpdater.Result result = bulkUpdater.apply(items);
+        if (!result.appliedIds().isEmpty()) {
+            invalidateProducts(Set.copyOf(result.appliedIds()));
+        }
+        return ProductBulkUpdateResponse.builder()
+                .aplicadas(result.appliedIds().size())
+                .rechazadas(result.rejected().size())
+                .rechazos(result.rejected())
+                .build();
     }
 
     public ProductResponse setProductActive(Long id, boolean active, User current) {
@@ -261,8 +457,10 @@ public class CatalogService {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Producto no encontrado"));
         product.setActive(active);
-        invalidateProductsCache();
-        return mapToResponse(product, findOfferForProduct(product, productOfferRepository.findActive(LocalDateTime.now())), null);
+        invalidateProduct(product.getId());
+        ProductRow row = loadRow(product.getId());
+        reindex(row);
+        return mapToResponse(row, loadActiveOffers().find(product.getId()));
     }
 
     public void deleteProduct(Long id, User current, boolean hardDelete) {
@@ -272,7 +470,8 @@ public class CatalogService {
         String imageUrl = product.getImageUrl();
         if (!hardDelete) {
             product.setActive(false);
-            invalidateProductsCache();
+            invalidateProduct(product.getId());
+            TransactionCallbacks.afterCommit(() -> searchIndex.remove(id));
             return;
         }
         var offers = productOfferRepository.findByProduct(product);
@@ -287,7 +486,8 @@ public class CatalogService {
         }
         productRepository.delete(product);
         fileStorageService.deleteByUrl(imageUrl);
-        invalidateProductsCache();
+        invalidateProduct(id);
+        TransactionCallbacks.afterCommit(() -> searchIndex.remove(id));
     }
 
     public ProductResponse addOffer(Long productId, Integer discountPct, LocalDateTime endsAt, User current) {
@@ -302,8 +502,8 @@ public class CatalogService {
                 .active(true)
                 .build();
         productOfferRepository.save(offer);
-        invalidateProductsCache();
-        return mapToResponse(product, Optional.of(offer), null);
+        invalidateOffer(offer);
+        return mapToResponse(loadRow(product.getId()), Optional.of(offer));
     }
 
     public AdminOfferResponse createOffer(AdminOfferRequest request, User current) {
@@ -314,11 +514,13 @@ public class CatalogService {
         ProductOffer offer = ProductOffer.builder()
                 .product(product)
                 .discountPct(request.getDiscountPct())
+                .startsAt(parseDateTime(request.getStartsAt()))
                 .endsAt(parseDateTime(request.getEndsAt()))
                 .active(request.getActive() == null ? true : request.getActive())
                 .build();
+        validateWindow(offer);
         ProductOffer saved = productOfferRepository.save(offer);
-        invalidateProductsCache();
+        invalidateOffer(saved);
         return AdminOfferResponse.from(saved);
     }
 
@@ -326,6 +528,7 @@ public class CatalogService {
         ensureAdmin(current);
         ProductOffer offer = productOfferRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Oferta no encontrada"));
+        invalidateOffer(offer);
         if (request.getProductId() != null && !request.getProductId().equals(offer.getProduct().getId())) {
             Product product = productRepository.findById(request.getProductId())
                     .orElseThrow(() -> new EntityNotFoundException("Producto no encontrado"));
@@ -333,11 +536,13 @@ public class CatalogService {
         }
         validateDiscount(request.getDiscountPct());
         offer.setDiscountPct(request.getDiscountPct());
+        offer.setStartsAt(parseDateTime(request.getStartsAt()));
         offer.setEndsAt(parseDateTime(request.getEndsAt()));
+        validateWindow(offer);
         if (request.getActive() != null) {
             offer.setActive(request.getActive());
         }
-        invalidateProductsCache();
+        invalidateOffer(offer);
         return AdminOfferResponse.from(offer);
     }
 
@@ -346,7 +551,7 @@ public class CatalogService {
         ProductOffer offer = productOfferRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Oferta no encontrada"));
         offer.setActive(active);
-        invalidateProductsCache();
+        invalidateOffer(offer);
         return AdminOfferResponse.from(offer);
     }
 
@@ -356,10 +561,11 @@ public class CatalogService {
                 .orElseThrow(() -> new EntityNotFoundException("Oferta no encontrada"));
         if (hard) {
             productOfferRepository.delete(offer);
+            TransactionCallbacks.afterCommit(() -> offerScheduler.untrack(id));
         } else {
             offer.setActive(false);
         }
-        invalidateProductsCache();
+        invalidateOffer(offer);
     }
 
     public void deleteReview(Long id) {
@@ -368,11 +574,27 @@ public class CatalogService {
         Long productId = review.getProduct() != null ? review.getProduct().getId() : null;
         productReviewRepository.delete(review);
         if (productId != null) {
-            updateReviewStats(productId);
-            invalidateProductsCache();
+            applyReviewDelta(productId, ratingOf(review), -1);
         }
     }
 
+    /**
+     * Recalcula reviewCount/ratingSum/reviewAvg desde las reseñas para los productos desviados, con
+     * una sola sentencia sobre todo el catalogo. Devuelve cuantos productos se corrigieron.
+     */
+    public int reconcileReviewStats(User current) {
+        ensureAdmin(current);
+        int updated = productRepository.reconcileReviewStats();
+        if (updated > 0) {
+            TransactionCallbacks.afterCommit(() -> {
+                snapshots.refresh();
+                adminProductsCache.clear();
+                catalogVersion.bump();
+            });
+        }
+        return updated;
+    }
+
     // Helpers
     private Category resolveCategory(String slug, String nameFallback) {
         if (!StringUtils.hasText(slug)) {
@@ -408,6 +630,12 @@ public class CatalogService {
         }
     }
 
+    private void validateWindow(ProductOffer offer) {
+        if (offer.getStartsAt() != null && offer.getEndsAt() != null && !offer.getStartsAt().isBefore(offer.getEndsAt())) {
+            throw new IllegalArgumentException("La fecha de inicio debe ser anterior a la de fin");
+        }
+    }
+
     private LocalDateTime parseDateTime(String value) {
         if (!StringUtils.hasText(value)) return null;
         try {
@@ -417,129 +645,30 @@ public class CatalogService {
         }
     }
 
-    private Optional<ProductOffer> findOfferForProduct(Product product, List<ProductOffer> offers) {
-        if (offers == null) return Optional.empty();
-        return offers.stream()
-                .filter(o -> o.getProduct().getId().equals(product.getId()) && !o.isExpired())
-                .findFirst();
-    }
-
-    private Map<Long, ReviewStats> aggregateReviewStats(List<Product> products) {
-        if (products == null || products.isEmpty()) return Map.of();
-        List<Long> ids = products.stream().map(Product::getId).toList();
-        return productReviewRepository.aggregateByProductIds(ids).stream()
-                .collect(Collectors.toMap(
-                        row -> ((Number) row[0]).longValue(),
-                        row -> new ReviewStats(((Number) row[1]).longValue(), row[2] != null ? ((Number) row[2]).doubleValue() : 0.0)
-                ));
+    private ActiveOfferIndex loadActiveOffers() {
+        return ActiveOfferIndex.of(productOfferRepository.findActive(LocalDateTime.now()));
     }
 
-    private Map<Long, Integer> loadStockBaseForProducts(List<Product> products) {
-        if (products == null || products.isEmpty()) return Map.of();
-        List<Long> productIds = products.stream()
-                .filter(p -> p != null && p.getId() != null)
-                .map(Product::getId)
-                .distinct()
-                .toList();
-        if (productIds.isEmpty()) return Map.of();
-        return productStockBaseRepository.findByProductIdIn(productIds).stream()
-                .filter(psb -> psb.getProduct() != null && psb.getProduct().getId() != null)
-                .collect(Collectors.toMap(
-                        psb -> psb.getProduct().getId(),
-                        ProductStockBase::getStockBase,
-                        (a, b) -> a
-                ));
-    }
-
-    private Map<Long, Integer> loadStockBase(List<ProductOffer> offers) {
-        if (offers == null || offers.isEmpty()) return Map.of();
-        List<Long> productIds = offers.stream()
-                .map(ProductOffer::getProduct)
-                .filter(p -> p != null && p.getId() != null)
-                .map(Product::getId)
-                .distinct()
-                .toList();
-        if (productIds.isEmpty()) return Map.of();
-        return productStockBaseRepository.findByProductIdIn(productIds).stream()
-                .filter(psb -> psb.getProduct() != null && psb.getProduct().getId() != null)
-                .collect(Collectors.toMap(
-                        psb -> psb.getProduct().getId(),
-                        ProductStockBase::getStockBase,
-                        (a, b) -> a
-                ));
-    }
-
-    private List<ProductResponse> getAdminProductsCache(String key) {
-        CacheEntry<List<ProductResponse>> entry = adminProductsCache.get(key);
-        if (entry == null) return null;
-        if (entry.expiresAt < System.currentTimeMillis()) {
-            adminProductsCache.remove(key);
-            return null;
+    /**
+     * Existencia del producto segun el snapshot del catalogo, sin consultar la BD.
+     */
+    private void ensurePublicProduct(Long productId) {
+        if (snapshots.current().product(productId).isEmpty()) {
+            throw new EntityNotFoundException("Producto no encontrado");
         }
-        return entry.value;
     }
 
-    private void putAdminProductsCache(String key, List<ProductResponse> value) {
-        adminProductsCache.put(key, new CacheEntry<>(value, System.currentTimeMillis() + CACHE_TTL_MS));
-    }
-
-    private List<AdminOfferResponse> getAdminOffersCache(String key) {
-        CacheEntry<List<AdminOfferResponse>> entry = adminOffersCache.get(key);
-        if (entry == null) return null;
-        if (entry.expiresAt < System.currentTimeMillis()) {
-            adminOffersCache.remove(key);
-            return null;
-        }
-        return entry.value;
+    private ProductRow loadRow(Long productId) {
+        return productRepository.findRowById(productId)
+                .orElseThrow(() -> new EntityNotFoundException("Producto no encontrado"));
     }
 
-    private void putAdminOffersCache(String key, List<AdminOfferResponse> value) {
-        adminOffersCache.put(key, new CacheEntry<>(value, System.currentTimeMillis() + CACHE_TTL_MS));
+    private List<ProductResponse> assemble(List<ProductRow> rows, ActiveOfferIndex offers) {
+        return ProductResponses.assemble(rows, offers);
     }
 
-    private ProductResponse mapToResponse(Product product, Optional<ProductOffer> offerOpt, Map<Long, ReviewStats> statsMap) {
-        return mapToResponse(product, offerOpt, statsMap, null);
-    }
-
-    private ProductResponse mapToResponse(Product product, Optional<ProductOffer> offerOpt, Map<Long, ReviewStats> statsMap, Map<Long, Integer> stockBaseMap) {
-        ProductResponse.OfferInfo offerInfo = null;
-        if (offerOpt.isPresent() && !offerOpt.get().isExpired()) {
-            var o = offerOpt.get();
-            offerInfo = ProductResponse.OfferInfo.builder()
-                    .discountPct(o.getDiscountPct())
-                    .endsAt(o.getEndsAt() != null ? o.getEndsAt().toString() : null)
-                    .build();
-        }
-        Integer stockBase = null;
-        if (stockBaseMap != null && stockBaseMap.containsKey(product.getId())) {
-            stockBase = stockBaseMap.get(product.getId());
-        } else {
-            stockBase = productStockBaseRepository.findByProductId(product.getId())
-                    .map(ProductStockBase::getStockBase)
-                    .orElse(null);
-        }
-        long reviewCount = product.getReviewCount() != null ? product.getReviewCount() : 0L;
-        double reviewAvg = product.getReviewAvg() != null ? product.getReviewAvg() : 0.0;
-        if (statsMap != null && statsMap.containsKey(product.getId())) {
-            var stats = statsMap.get(product.getId());
-            reviewCount = stats.count();
-            reviewAvg = stats.avg();
-        }
-        return ProductResponse.builder()
-                .id(product.getId())
-                .nombre(product.getName())
-                .descripcion(product.getDescription())
-                .precio(product.getPrice())
-                .stock(product.getStock())
-                .stockBase(stockBase)
-                .imagenUrl(product.getImageUrl())
-                .categoria(product.getCategory() != null ? product.getCategory().getName() : null)
-                .offer(offerInfo)
-                .vendedor(null)
-                .reviewCount((int) reviewCount)
-                .reviewAvg(reviewAvg)
-                .active(product.getActive())
-                .build();
+    private ProductResponse mapToResponse(ProductRow row, Optional<ProductOffer> offerOpt) {
+        return ProductResponses.from(row, offerOpt);
     }
 
     private String normalizeImage(String raw) {
@@ -561,37 +690,113 @@ public class CatalogService {
         productStockBaseRepository.save(stockBase);
     }
 
-    private void updateReviewStats(Long productId) {
-        long count = productReviewRepository.countByProductId(productId);
-        double avg = productReviewRepository.averageRating(productId).orElse(0.0);
-        productRepository.findById(productId).ifPresent(p -> {
-            p.setReviewCount(count);
-            p.setReviewAvg(avg);
-            productRepository.save(p);
+    /**
+     * Un UPDATE atomico sobre los contadores del producto (sin agregar sus reseñas) y una lectura por
+     * PK de los valores resultantes para parchar snapshot y caches.
+     */
+    private void applyReviewDelta(Long productId, long rating, int countDelta) {
+        productRepository.applyReviewDelta(productId, rating, countDelta);
+        productRepository.findReviewStats(productId)
+                .ifPresent(stats -> patchReviewStats(productId, stats));
+    }
+
+    private static long ratingOf(ProductReview review) {
+        return review.getRating() != null ? review.getRating() : 0;
+    }
+
+    /**
+     * Tras el commit publica una copia del snapshot con los productos releidos e invalida las vistas
+     * admin de productos y las vistas admin de ofertas que listan el producto. La version se incrementa despues del swap, asi
+     * un ETag nuevo nunca describe el snapshot anterior.
+     */
+    private void invalidateProduct(Long productId) {
+        invalidateProducts(Set.of(productId));
+    }
+
+    private void invalidateProducts(Set<Long> productIds) {
+        TransactionCallbacks.afterCommit(() -> {
+            snapshots.refreshProducts(productIds);
+            adminProductsCache.clear();
+            adminOffersCache.evictIf(offers -> offers.stream().anyMatch(o -> productIds.contains(o.getProductId())));
+            catalogVersion.bump();
+            publisher.publishEvent(new ProductsChangedEvent(productIds));
         });
     }
 
-    private void invalidateProductsCache() {
-        productsCache.clear();
-        adminProductsCache.clear();
+    private void invalidateOffer(ProductOffer offer) {
+        Product product = offer.getProduct();
+        if (product != null) {
+            invalidateProduct(product.getId());
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            if (product == null) snapshots.refresh();
+            offerScheduler.track(offer);
+            adminOffersCache.clear();
+            catalogVersion.bump();
+        });
+    }
+
+    /**
+     * Limite de oferta cruzado (inicio o fin): se parchan en el snapshot los productos afectados y se
+     * desalojan solo las vistas admin que los listan.
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onOfferBoundary(OfferBoundaryEvent event) {
+        Set<Long> productIds = event.productIds();
+        snapshots.refreshProducts(productIds);
+        adminProductsCache.evictIf(products -> products.stream().anyMatch(p -> productIds.contains(p.getId())));
         adminOffersCache.clear();
+        catalogVersion.bump();
+    }
+
+    /**
+     * Stock descontado o devuelto por ordenes, reservas o el flush del ledger: el parche corre en el hilo
+     * del snapshot para no alargar el checkout, y la version sube recien cuando la copia ya esta publicada.
+     */
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        snapshots.refreshProductsInBackground(event.productIds(), published -> {
+            adminProductsCache.evictIf(products -> products.stream().anyMatch(p -> published.contains(p.getId())));
+            catalogVersion.bump();
+        });
     }
 
-    private List<ProductResponse> getCache(String key) {
-        CacheEntry<List<ProductResponse>> entry = productsCache.get(key);
-        if (entry == null) return null;
-        if (entry.expiresAt < System.currentTimeMillis()) {
-            productsCache.remove(key);
-            return null;
-        }
-        return entry.value;
+    /**
+     * Los cambios de reseñas solo alteran reviewCount/reviewAvg: se publica una copia del snapshot y se
+     * parchan las vistas admin cacheadas en vez de reconstruirlas.
+     */
+    private void patchReviewStats(Long productId, ReviewStatsRow stats) {
+        UnaryOperator<List<ProductResponse>> patch = list -> {
+            for (int i = 0; i < list.size(); i++) {
+                ProductResponse item = list.get(i);
+                if (!productId.equals(item.getId())) continue;
+                List<ProductResponse> copy = new ArrayList<>(list);
+                copy.set(i, item.toBuilder()
+                        .reviewCount(stats.reviewCount().intValue())
+                        .reviewAvg(stats.reviewAvg())
+                        .build());
+                return List.copyOf(copy);
+            }
+            return list;
+        };
+        TransactionCallbacks.afterCommit(() -> {
+            snapshots.patchReviewStats(productId, stats.reviewCount(), stats.reviewAvg());
+            adminProductsCache.patchAll(patch);
+            catalogVersion.bump();
+        });
     }
 
-    private void putCache(String key, List<ProductResponse> value) {
-        productsCache.put(key, new CacheEntry<>(value, System.currentTimeMillis() + CACHE_TTL_MS));
+    private void reindex(ProductRow row) {
+        TransactionCallbacks.afterCommit(() -> searchIndex.upsert(row));
     }
 
-    private record CacheEntry<T>(T value, long expiresAt) {}
+    private ProductSort parseSort(String sortParam) {
+        try {
+            return ProductSort.from(sortParam);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Orden no soportado: " + sortParam);
+        }
+    }
 
-    private record ReviewStats(long count, double avg) {}
 }
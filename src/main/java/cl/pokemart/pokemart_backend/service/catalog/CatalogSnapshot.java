@@ -0,0 +1,473 @@
+package cl.pokemart.pokemart_backend.service.catalog;
+
+import cl.pokemart.pokemart_backend.dto.catalog.ProductResponse;
+import cl.pokemart.pokemart_backend.model.catalog.Category;
+import cl.pokemart.pokemart_backend.repository.catalog.ProductRow;
+import cl.pokemart.pokemart_backend.repository.catalog.ProductSort;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Foto inmutable del catalogo publico: productos activos (con categoria, stock base y estadisticas de
+ * reseñas), categorias y mejores ofertas vigentes, mas los indices derivados (por categoria, columnas para
+ * facetas y orden de cada {@link ProductSort}). Se publica completa por una referencia volatil, asi las
+ * lecturas no toman locks ni tocan la BD; cualquier cambio produce una instancia nueva. Los parches
+ * reutilizan los indices que no cambian y reubican los productos tocados en vez de reordenar todo.
+ */
+public final class CatalogSnapshot {
+
+    private static final Comparator<Object> VALUE_ORDER = Comparator.nullsFirst(CatalogSnapshot::compareValues);
+
+    private final long generation;
+    private final long builtAtNanos;
+    private final List<ProductRow> rows;
+    private final List<ProductResponse> products;
+    private final List<Long> offerProductIds;
+    private final Map<String, String> categories;
+
+    private final Map<String, List<ProductResponse>> byCategory;
+    private final List<ProductResponse> offers;
+    private final CatalogColumns columns;
+    private final Map<ProductSort, int[]> orders;
+    private final long productBytes;
+    private final long estimatedBytes;
+    private final Duration buildTime;
+
+    private CatalogSnapshot(long generation, long startNanos, List<ProductRow> rows, List<ProductResponse> products,
+                            List<Long> offerProductIds, Map<String, String> categories,
+                            Map<String, List<ProductResponse>> byCategory, CatalogColumns columns,
+                            Map<ProductSort, int[]> orders, long productBytes) {
+        this.generation = generation;
+        this.rows = rows;
+        this.products = products;
+        this.offerProductIds = List.copyOf(offerProductIds);
+        this.categories = categories;
+        this.byCategory = Collections.unmodifiableMap(byCategory);
+        this.offers = this.offerProductIds.stream()
+                .map(this::product)
+                .flatMap(Optional::stream)
+                .toList();
+        this.columns = columns;
+        this.orders = orders;
+        this.productBytes = productBytes;
+        this.estimatedBytes = estimateBytes();
+        this.builtAtNanos = System.nanoTime();
+        this.buildTime = Duration.ofNanos(builtAtNanos - startNanos);
+    }
+
+    /**
+     * @param startNanos   inicio de la carga, para que buildTime incluya las consultas
+     * @param rows         productos activos ordenados por id
+     * @param index        mejores ofertas vigentes por producto
+     * @param categoryList todas las categorias
+     */
+    public static CatalogSnapshot build(long generation, long startNanos, List<ProductRow> rows,
+                                 ActiveOfferIndex index, List<Category> categoryList) {
+        List<ProductRow> allRows = List.copyOf(rows);
+        List<ProductResponse> products = List.copyOf(ProductResponses.assemble(allRows, index));
+        Map<String, List<ProductResponse>> grouped = new LinkedHashMap<>();
+        List<String> slugs = new ArrayList<>(products.size());
+        long bytes = 0;
+        for (int i = 0; i < products.size(); i++) {
+            ProductResponse product = products.get(i);
+            String slug = normalizeSlug(allRows.get(i).categorySlug());
+            slugs.add(slug);
+            if (slug != null) {
+                grouped.computeIfAbsent(slug, s -> new ArrayList<>()).add(product);
+            }
+            bytes += productBytes(product);
+        }
+        grouped.replaceAll((slug, list) -> List.copyOf(list));
+        Map<ProductSort, int[]> orders = new EnumMap<>(ProductSort.class);
+        for (ProductSort sort : ProductSort.values()) {
+            orders.put(sort, sortedPositions(sort, allRows, products));
+        }
+        return new CatalogSnapshot(generation, startNanos, allRows, products, offerIds(index.bestOffers().stream().map(o -> o.getProduct().getId()).toList()),
+                categoryMap(categoryList), grouped, CatalogColumns.of(products, slugs), orders, bytes);
+    }
+
+    /**
+     * Copia con reviewCount/reviewAvg actualizados para un producto (copy-on-write), en la respuesta y en la
+     * proyeccion. Solo se reubica el producto en el orden por rating. Si el producto no esta en el snapshot
+     * devuelve la misma instancia.
+     */
+    public CatalogSnapshot withReviewStats(long nextGeneration, Long productId, long count, double avg) {
+        int position = position(productId);
+        if (position < 0) return this;
+        long start = System.nanoTime();
+        ProductRow row = rows.get(position);
+        ProductRow patchedRow = new ProductRow(row.id(), row.name(), row.description(), row.price(), row.stock(),
+                row.imageUrl(), count, avg, row.active(), row.categoryName(), row.categorySlug(), row.stockBase(),
+                row.createdAt());
+        ProductResponse patched = products.get(position).toBuilder()
+                .reviewCount((int) count)
+                .reviewAvg(avg)
+                .build();
+        return patch(nextGeneration, start, Set.of(productId), List.of(patchedRow), List.of(patched),
+                offerProductIds, categories);
+    }
+
+    /**
+     * Copia con los productos {@code productIds} reemplazados por {@code changedRows} (sus proyecciones
+     * activas actuales), las ofertas vigentes de {@code offers} y las categorias de {@code categoryList}
+     * (copy-on-write). Los ids sin fila quedan fuera del snapshot; el resto de productos y ofertas se
+     * conserva tal cual.
+     */
+    public CatalogSnapshot withProducts(long nextGeneration, Set<Long> productIds, List<ProductRow> changedRows,
+                                        ActiveOfferIndex offers, List<Category> categoryList) {
+        long start = System.nanoTime();
+        List<ProductRow> incoming = changedRows.stream().sorted(Comparator.comparing(ProductRow::id)).toList();
+        List<Long> nextOffers = new ArrayList<>(offerProductIds);
+        nextOffers.removeAll(productIds);
+        offers.bestOffers().stream()
+                .map(o -> o.getProduct().getId())
+                .filter(productIds::contains)
+                .forEach(nextOffers::add);
+        return patch(nextGeneration, start, productIds, incoming, ProductResponses.assemble(incoming, offers),
+                offerIds(nextOffers), categoryMap(categoryList));
+    }
+
+    /**
+     * Copia con {@code changedIds} retirados y {@code incomingRows} (ordenadas por id) insertadas. Los
+     * productos que no cambian conservan su posicion relativa en cada orden, asi basta mezclar los nuevos;
+     * un orden cuyas posiciones y valores no cambian se reutiliza tal cual, igual que las categorias y las
+     * columnas no tocadas.
+     */
+    private CatalogSnapshot patch(long nextGeneration, long start, Set<Long> changedIds, List<ProductRow> incomingRows,
+                                  List<ProductResponse> incomingProducts, List<Long> nextOfferIds,
+                                  Map<String, String> nextCategories) {
+        int capacity = rows.size() + incomingRows.size();
+        List<ProductRow> nextRows = new ArrayList<>(capacity);
+        List<ProductResponse> nextProducts = new ArrayList<>(capacity);
+        int[] previous = new int[capacity];
+        int[] moved = new int[rows.size()];
+        int[] inserted = new int[incomingRows.size()];
+        Set<String> touchedSlugs = new HashSet<>();
+        long bytes = productBytes;
+        int i = 0;
+        int j = 0;
+        while (i < rows.size() || j < incomingRows.size()) {
+            if (i == rows.size() || (j < incomingRows.size() && incomingRows.get(j).id() < rows.get(i).id())) {
+                inserted[j] = nextRows.size();
+                previous[nextRows.size()] = -1;
+                nextRows.add(incomingRows.get(j));
+                nextProducts.add(incomingProducts.get(j));
+                bytes += productBytes(incomingProducts.get(j));
+                touchedSlugs.add(normalizeSlug(incomingRows.get(j).categorySlug()));
+                j++;
+            } else if (changedIds.contains(rows.get(i).id())) {
+                moved[i] = -1;
+                bytes -= productBytes(products.get(i));
+                touchedSlugs.add(normalizeSlug(rows.get(i).categorySlug()));
+                i++;
+            } else {
+                moved[i] = nextRows.size();
+                previous[nextRows.size()] = i;
+                nextRows.add(rows.get(i));
+                nextProducts.add(products.get(i));
+                i++;
+            }
+        }
+        int n = nextRows.size();
+        boolean sameLayout = n == rows.size();
+        for (int p = 0; sameLayout && p < n; p++) {
+            sameLayout = previous[p] < 0 || previous[p] == p;
+        }
+
+        Map<ProductSort, int[]> nextOrders = new EnumMap<>(ProductSort.class);
+        for (ProductSort sort : ProductSort.values()) {
+            nextOrders.put(sort, sameLayout && sameSortValues(sort, nextRows, nextProducts, inserted)
+                    ? orders.get(sort)
+                    : reorder(sort, moved, inserted, nextRows, nextProducts));
+        }
+
+        Map<String, List<ProductResponse>> grouped = new LinkedHashMap<>(byCategory);
+        touchedSlugs.remove(null);
+        for (String slug : touchedSlugs) {
+            List<ProductResponse> members = mergeCategory(slug, changedIds, inserted, nextRows, nextProducts);
+            if (members.isEmpty()) grouped.remove(slug);
+            else grouped.put(slug, members);
+        }
+
+        CatalogColumns nextColumns = columns.patch(nextProducts, Arrays.copyOf(previous, n),
+                p -> normalizeSlug(nextRows.get(p).categorySlug()));
+        return new CatalogSnapshot(nextGeneration, start, Collections.unmodifiableList(nextRows),
+                Collections.unmodifiableList(nextProducts), nextOfferIds, nextCategories, grouped, nextColumns,
+                nextOrders, bytes);
+    }
+
+    /**
+     * Con las mismas posiciones, el orden sigue valido si ningun producto tocado cambio su valor de orden.
+     */
+    private boolean sameSortValues(ProductSort sort, List<ProductRow> nextRows, List<ProductResponse> nextProducts,
+                                   int[] inserted) {
+        for (int p : inserted) {
+            Object before = sortValue(sort, products.get(p), rows.get(p));
+            Object after = sortValue(sort, nextProducts.get(p), nextRows.get(p));
+            if (VALUE_ORDER.compare(before, after) != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Traslada el orden anterior a las posiciones nuevas (sin los retirados) y mezcla los insertados, que
+     * son pocos y se ordenan aparte: O(n + k log k) en vez de reordenar el catalogo.
+     */
+    private int[] reorder(ProductSort sort, int[] moved, int[] inserted, List<ProductRow> nextRows,
+                          List<ProductResponse> nextProducts) {
+        int[] added = IntStream.of(inserted)
+                .boxed()
+                .sorted((a, b) -> compare(sort, nextRows, nextProducts, a, b))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        int[] result = new int[nextRows.size()];
+        int r = 0;
+        int a = 0;
+        for (int position : orders.get(sort)) {
+            int mapped = moved[position];
+            if (mapped < 0) continue;
+            while (a < added.length && compare(sort, nextRows, nextProducts, added[a], mapped) < 0) {
+                result[r++] = added[a++];
+            }
+            result[r++] = mapped;
+        }
+        while (a < added.length) {
+            result[r++] = added[a++];
+        }
+        return result;
+    }
+
+    /**
+     * Miembros de una categoria tocada: los anteriores que no cambiaron mas los insertados con ese slug,
+     * ambos por id.
+     */
+    private List<ProductResponse> mergeCategory(String slug, Set<Long> changedIds, int[] inserted,
+                                                List<ProductRow> nextRows, List<ProductResponse> nextProducts) {
+        List<ProductResponse> kept = byCategory.getOrDefault(slug, List.of());
+        List<ProductResponse> members = new ArrayList<>(kept.size() + inserted.length);
+        int k = 0;
+        for (int p : inserted) {
+            if (!slug.equals(normalizeSlug(nextRows.get(p).categorySlug()))) continue;
+            ProductResponse added = nextProducts.get(p);
+            for (; k < kept.size() && kept.get(k).getId() < added.getId(); k++) {
+                if (!changedIds.contains(kept.get(k).getId())) members.add(kept.get(k));
+            }
+            members.add(added);
+        }
+        for (; k < kept.size(); k++) {
+            if (!changedIds.contains(kept.get(k).getId())) members.add(kept.get(k));
+        }
+        return List.copyOf(members);
+    }
+
+    public List<ProductResponse> products() {
+        return products;
+    }
+
+    public List<ProductResponse> products(String categorySlug) {
+        if (categorySlug == null) return products;
+        return byCategory.getOrDefault(normalizeSlug(categorySlug), List.of());
+    }
+
+    public Optional<ProductResponse> product(Long id) {
+        int position = position(id);
+        return position >= 0 ? Optional.of(products.get(position)) : Optional.empty();
+    }
+
+    /**
+     * Productos con oferta vigente, por id de producto.
+     */
+    public List<ProductResponse> offers() {
+        return offers;
+    }
+
+    /**
+     * Categorias por slug (en minusculas) con su nombre.
+     */
+    public Map<String, String> categories() {
+        return categories;
+    }
+
+    public CatalogColumns columns() {
+        return columns;
+    }
+
+    /**
+     * Proyecciones de origen, para reconstruir indices derivados (busqueda) sin volver a la BD.
+     */
+    List<ProductRow> rows() {
+        return rows;
+    }
+
+    /**
+     * Hasta {@code limit} productos en el orden de {@code sort}, a continuacion de (afterValue, afterId).
+     * Busqueda binaria sobre el orden precalculado: misma semantica que el keyset de la BD.
+     */
+    public Page page(ProductSort sort, Object afterValue, Long afterId, int limit) {
+        int[] order = orders.get(sort);
+        int from = 0;
+        if (afterValue != null && afterId != null) {
+            int lo = 0;
+            int hi = order.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compareTo(sort, order[mid], afterValue, afterId) <= 0) lo = mid + 1;
+                else hi = mid;
+            }
+            from = lo;
+        }
+        int to = Math.min(order.length, from + limit);
+        List<ProductResponse> items = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            items.add(products.get(order[i]));
+        }
+        Object lastValue = to > from ? sortValue(sort, order[to - 1]) : null;
+        return new Page(List.copyOf(items), lastValue, to < order.length);
+    }
+
+    public long generation() {
+        return generation;
+    }
+
+    public Duration buildTime() {
+        return buildTime;
+    }
+
+    public long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * Vencido por edad. Los inicios y fines de ofertas no cuentan: los publica {@link OfferScheduler}.
+     */
+    boolean isStale(Duration maxAge) {
+        return maxAge != null && !maxAge.isZero() && System.nanoTime() - builtAtNanos >= maxAge.toNanos();
+    }
+
+    public record Page(List<ProductResponse> items, Object lastValue, boolean hasMore) {}
+
+    /**
+     * Posicion del producto por busqueda binaria sobre las proyecciones (ordenadas por id), o -1.
+     */
+    private int position(Long id) {
+        if (id == null) return -1;
+        int lo = 0;
+        int hi = rows.size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = rows.get(mid).id().compareTo(id);
+            if (cmp < 0) lo = mid + 1;
+            else if (cmp > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    private static int[] sortedPositions(ProductSort sort, List<ProductRow> rows, List<ProductResponse> products) {
+        return IntStream.range(0, products.size())
+                .boxed()
+                .sorted((a, b) -> compare(sort, rows, products, a, b))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private static int compare(ProductSort sort, List<ProductRow> rows, List<ProductResponse> products, int a, int b) {
+        int cmp = VALUE_ORDER.compare(sortValue(sort, products.get(a), rows.get(a)),
+                sortValue(sort, products.get(b), rows.get(b)));
+        if (cmp == 0) cmp = products.get(a).getId().compareTo(products.get(b).getId());
+        return sort.descending() ? -cmp : cmp;
+    }
+
+    /**
+     * Compara la posicion {@code i} contra (value, id) en el sentido del orden, desempatando por id.
+     */
+    private int compareTo(ProductSort sort, int i, Object value, Long id) {
+        int cmp = VALUE_ORDER.compare(sortValue(sort, i), value);
+        if (cmp == 0) cmp = products.get(i).getId().compareTo(id);
+        return sort.descending() ? -cmp : cmp;
+    }
+
+    private Object sortValue(ProductSort sort, int i) {
+        return sortValue(sort, products.get(i), rows.get(i));
+    }
+
+    /**
+     * Valor de orden de un producto. Rating y descuento salen de la respuesta publicada (puede traer
+     * estadisticas de reseñas parchadas); la fecha de alta sale de la proyeccion.
+     */
+    private static Object sortValue(ProductSort sort, ProductResponse product, ProductRow row) {
+        return switch (sort) {
+            case NAME -> product.getNombre();
+            case PRICE, PRICE_DESC -> product.getPrecio();
+            case RATING -> product.getReviewAvg();
+            case NEWEST -> row.createdAt();
+            case DISCOUNT -> product.getOffer() != null && product.getOffer().getDiscountPct() != null
+                    ? product.getOffer().getDiscountPct()
+                    : 0;
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Object a, Object b) {
+        return ((Comparable) a).compareTo(b);
+    }
+
+    private static String normalizeSlug(String slug) {
+        return slug == null ? null : slug.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Ids de productos con oferta en orden estable (por id), para que un parche no altere el listado.
+     */
+    private static List<Long> offerIds(List<Long> productIds) {
+        return productIds.stream().sorted().toList();
+    }
+
+    private static Map<String, String> categoryMap(List<Category> categoryList) {
+        Map<String, String> categories = new LinkedHashMap<>();
+        for (Category category : categoryList) {
+            if (category.getSlug() != null) categories.put(normalizeSlug(category.getSlug()), category.getName());
+        }
+        return Collections.unmodifiableMap(categories);
+    }
+
+    /**
+     * Estimacion gruesa del heap retenido (JVM 64 bits con oops comprimidos y strings compactos).
+     * Proyecciones y respuestas comparten los strings, que se cuentan una vez; la parte por producto se
+     * acumula al construir y al parchar.
+     */
+    private long estimateBytes() {
+        long bytes = productBytes;
+        int n = products.size();
+        bytes += (long) n * 4 * orders.size();             // ordenes precalculados
+        bytes += (long) n * (8 + 4 + 8) + (long) (categories.size() + 2) * (n / 8 + 48); // columnas y bitsets
+        return bytes;
+    }
+
+    private static long productBytes(ProductResponse p) {
+        long bytes = 72 + 64;                              // ProductResponse + ProductRow
+        bytes += stringBytes(p.getNombre()) + stringBytes(p.getDescripcion())
+                + stringBytes(p.getImagenUrl()) + stringBytes(p.getCategoria());
+        bytes += 40 + 16 * 4 + 24;                         // BigDecimal, numeros en caja y LocalDateTime
+        if (p.getOffer() != null) bytes += 24 + 16 + stringBytes(p.getOffer().getEndsAt());
+        bytes += 8 * 3;                                    // referencias en listas
+        return bytes;
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 40L + value.length();
+    }
+}
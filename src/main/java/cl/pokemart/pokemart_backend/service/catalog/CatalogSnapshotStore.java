@@ -0,0 +1,222 @@
+package cl.pokemart.pokemart_backend.service.catalog;
+
+import cl.pokemart.pokemart_backend.config.CatalogSnapshotProperties;
+import cl.pokemart.pokemart_backend.repository.catalog.CategoryRepository;
+import cl.pokemart.pokemart_backend.repository.catalog.ProductOfferRepository;
+import cl.pokemart.pokemart_backend.repository.catalog.ProductRepository;
+import cl.pokemart.pokemart_backend.service.common.ContentVersion;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Publica el {@link CatalogSnapshot} vigente. Las lecturas solo leen la referencia volatil; las
+ * escrituras de CatalogService (tras su commit) parchan los productos afectados y reemplazan la
+ * referencia; solo los cambios masivos reconstruyen el catalogo completo.
+ * Un snapshot vencido se sigue sirviendo mientras un hilo de fondo arma el siguiente. Cada publicacion,
+ * incluida la reconstruccion periodica que recoge cambios de otras instancias, incrementa la version del
+ * catalogo despues del swap, asi un ETag nuevo nunca describe el snapshot anterior.
+ * Metricas: catalog.snapshot.build (timer), catalog.snapshot.generation, catalog.snapshot.heap (bytes)
+ * y catalog.snapshot.products.
+ */
+@Component
+public class CatalogSnapshotStore implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotStore.class);
+
+    private final ProductRepository productRepository;
+    private final ProductOfferRepository productOfferRepository;
+    private final CategoryRepository categoryRepository;
+    private final TransactionTemplate readTx;
+    private final CatalogSnapshotProperties properties;
+    private final Timer buildTimer;
+    private final AtomicLong generations = new AtomicLong();
+    private final ContentVersion version = new ContentVersion("catalog");
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final Set<Long> dirtyProducts = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean patching = new AtomicBoolean();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile CatalogSnapshot current;
+
+    public CatalogSnapshotStore(ProductRepository productRepository,
+                                ProductOfferRepository productOfferRepository,
+                                CategoryRepository categoryRepository,
+                                PlatformTransactionManager transactionManager,
+                                CatalogSnapshotProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.productOfferRepository = productOfferRepository;
+        this.categoryRepository = categoryRepository;
+        this.properties = properties;
+        // Transaccion propia: refresh() tambien se invoca desde afterCommit de otra transaccion
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true);
+        this.readTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.buildTimer = Timer.builder("catalog.snapshot.build")
+                .description("Tiempo de construccion del snapshot del catalogo")
+                .register(meterRegistry);
+        Gauge.builder("catalog.snapshot.generation", this, s -> s.current != null ? s.current.generation() : 0)
+                .description("Generacion del snapshot publicado")
+                .register(meterRegistry);
+        Gauge.builder("catalog.snapshot.heap", this, s -> s.current != null ? s.current.estimatedBytes() : 0)
+                .description("Heap estimado retenido por el snapshot")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("catalog.snapshot.products", this, s -> s.current != null ? s.current.products().size() : 0)
+                .description("Productos activos en el snapshot")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            refresh();
+        } catch (RuntimeException ex) {
+            log.warn("No se pudo construir el snapshot del catalogo al iniciar; se construira en la primera lectura", ex);
+        }
+    }
+
+    /**
+     * Snapshot vigente. Solo la primera lectura (sin snapshot publicado) espera la construccion.
+     */
+    public CatalogSnapshot current() {
+        CatalogSnapshot snapshot = current;
+        if (snapshot == null) {
+            return refresh();
+        }
+        if (snapshot.isStale(properties.getMaxAge())) {
+            refreshInBackground();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Reconstruye desde la BD y publica el resultado.
+     */
+    public synchronized CatalogSnapshot refresh() {
+        long start = System.nanoTime();
+        CatalogSnapshot snapshot = readTx.execute(status -> CatalogSnapshot.build(
+                generations.incrementAndGet(),
+                start,
+                productRepository.findActiveRows(),
+                ActiveOfferIndex.of(productOfferRepository.findActive(LocalDateTime.now())),
+                categoryRepository.findAll()));
+        buildTimer.record(snapshot.buildTime());
+        publish(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Publica una copia con los productos indicados releidos de la BD junto a sus ofertas vigentes y las
+     * categorias actuales, sin reconstruir el resto del catalogo. Un conjunto vacio (cambio masivo)
+     * reconstruye todo. Sin snapshot publicado no hace nada: la primera lectura lo construye.
+     */
+    public synchronized void refreshProducts(Set<Long> productIds) {
+        CatalogSnapshot snapshot = current;
+        if (snapshot == null) return;
+        if (productIds.isEmpty()) {
+            refresh();
+            return;
+        }
+        publish(readTx.execute(status -> snapshot.withProducts(
+                generations.incrementAndGet(),
+                productIds,
+                productRepository.findActiveRowsByIdIn(productIds),
+                ActiveOfferIndex.of(productOfferRepository.findActiveForProducts(LocalDateTime.now(), productIds)),
+                categoryRepository.findAll())));
+    }
+
+    /**
+     * Como {@link #refreshProducts} pero en el hilo de fondo: los productos que llegan mientras hay un parche
+     * pendiente se juntan en el mismo, asi una rafaga de checkouts produce pocas copias del snapshot.
+     * {@code onPublished} recibe los ids ya publicados.
+     */
+    public void refreshProductsInBackground(Set<Long> productIds, Consumer<Set<Long>> onPublished) {
+        dirtyProducts.addAll(productIds);
+        if (!patching.compareAndSet(false, true)) return;
+        try {
+            refresher.execute(() -> {
+                patching.set(false);
+                Set<Long> ids = new HashSet<>();
+                for (Long id : dirtyProducts) {
+                    if (dirtyProducts.remove(id)) ids.add(id);
+                }
+                if (ids.isEmpty()) return;
+                try {
+                    refreshProducts(ids);
+                    onPublished.accept(ids);
+                } catch (RuntimeException ex) {
+                    log.warn("Fallo el parche del snapshot para {} productos; se corrige en la siguiente reconstruccion", ids.size(), ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            patching.set(false);
+        }
+    }
+
+    /**
+     * Publica una copia con las estadisticas de reseñas nuevas sin volver a la BD.
+     */
+    public synchronized void patchReviewStats(Long productId, long count, double avg) {
+        CatalogSnapshot snapshot = current;
+        if (snapshot == null) return;
+        publish(snapshot.withReviewStats(generations.incrementAndGet(), productId, count, avg));
+    }
+
+    /**
+     * Version del catalogo publico; sube con cada snapshot publicado.
+     */
+    public ContentVersion version() {
+        return version;
+    }
+
+    private void publish(CatalogSnapshot snapshot) {
+        current = snapshot;
+        version.bump();
+    }
+
+    private void refreshInBackground() {
+        if (!refreshing.compareAndSet(false, true)) return;
+        try {
+            refresher.execute(() -> {
+                try {
+                    refresh();
+                } catch (RuntimeException ex) {
+                    log.warn("Fallo la reconstruccion del snapshot del catalogo; se mantiene la generacion anterior", ex);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            refreshing.set(false);
+        }
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+    }
+}
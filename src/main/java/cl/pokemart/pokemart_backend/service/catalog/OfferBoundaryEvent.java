@@ -0,0 +1,9 @@
+package cl.pokemart.pokemart_backend.service.catalog;
+
+import java.util.Set;
+
+/**
+ * Una o mas ofertas de estos productos comenzaron o terminaron en el ultimo tick.
+ */
+public record OfferBoundaryEvent(Set<Long> productIds) {
+}
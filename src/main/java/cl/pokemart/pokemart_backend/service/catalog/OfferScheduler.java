@@ -0,0 +1,101 @@
+package cl.pokemart.pokemart_backend.service.catalog;
+
+import cl.pokemart.pokemart_backend.config.OfferScheduleProperties;
+import cl.pokemart.pokemart_backend.model.catalog.ProductOffer;
+import cl.pokemart.pokemart_backend.repository.catalog.ProductOfferRepository;
+import cl.pokemart.pokemart_backend.service.common.TimingWheel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Conoce el startsAt/endsAt de cada oferta activa y, al cruzar cada limite, publica un
+ * {@link OfferBoundaryEvent} con los productos afectados. Asi el catalogo cambia de oferta al segundo
+ * sin que las lecturas decidan vigencias por hora.
+ */
+@Component
+public class OfferScheduler implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(OfferScheduler.class);
+
+    private final ProductOfferRepository productOfferRepository;
+    private final ApplicationEventPublisher publisher;
+    private final TimingWheel<Boundary> wheel;
+
+    public OfferScheduler(ProductOfferRepository productOfferRepository,
+                          ApplicationEventPublisher publisher,
+                          OfferScheduleProperties properties,
+                          MeterRegistry meterRegistry) {
+        this.productOfferRepository = productOfferRepository;
+        this.publisher = publisher;
+        this.wheel = new TimingWheel<>("offer-wheel", properties.getTick(), properties.getWheelSize(), this::onBoundaries);
+        Gauge.builder("catalog.offers.scheduled", wheel, TimingWheel::size)
+                .description("Limites de ofertas pendientes en la rueda")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSchedule() {
+        try {
+            List<ProductOffer> offers = productOfferRepository.findWithUpcomingBoundary(LocalDateTime.now());
+            offers.forEach(this::track);
+            log.info("Programados los limites de {} ofertas", offers.size());
+        } catch (RuntimeException ex) {
+            log.warn("No se pudieron programar los limites de ofertas", ex);
+        }
+    }
+
+    /**
+     * Reprograma los limites futuros de la oferta segun su estado actual (tras crearla o editarla).
+     */
+    public void track(ProductOffer offer) {
+        untrack(offer.getId());
+        if (!Boolean.TRUE.equals(offer.getActive()) || offer.getProduct() == null) return;
+        Long productId = offer.getProduct().getId();
+        LocalDateTime now = LocalDateTime.now();
+        for (LocalDateTime at : new LocalDateTime[]{offer.getStartsAt(), offer.getEndsAt()}) {
+            if (at != null && at.isAfter(now)) {
+                wheel.schedule(new Boundary(offer.getId(), productId, at), Duration.between(now, at));
+            }
+        }
+    }
+
+    public void untrack(Long offerId) {
+        if (offerId == null) return;
+        wheel.cancelIf(boundary -> offerId.equals(boundary.offerId()));
+    }
+
+    private void onBoundaries(List<Boundary> due) {
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (Boundary boundary : due) {
+            if (now.isBefore(boundary.at())) {
+                // El reloj de pared quedo atras del monotono: se reprograma el resto
+                wheel.schedule(boundary, Duration.between(now, boundary.at()));
+            } else {
+                productIds.add(boundary.productId());
+            }
+        }
+        if (!productIds.isEmpty()) {
+            publisher.publishEvent(new OfferBoundaryEvent(Set.copyOf(productIds)));
+        }
+    }
+
+    @Override
+    public void close() {
+        wheel.close();
+    }
+
+    record Boundary(Long offerId, Long productId, LocalDateTime at) {}
+}
@@ -0,0 +1,174 @@
+package cl.pokemart.pokemart_backend.service.catalog;
+
+import cl.pokemart.pokemart_backend.dto.catalog.ProductBulkUpdateItem;
+import cl.pokemart.pokemart_backend.dto.catalog.ProductBulkUpdateResponse;
+import cl.pokemart.pokemart_backend.model.catalog.ProductStockBase;
+import cl.pokemart.pokemart_backend.service.common.PooledIdAllocator;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * Cambios masivos de precio, stock y stock base con UPDATEs en JDBC batch, dentro de la transaccion
+ * del llamador. Cada fila puede traer el precio y/o stock que el cliente leyo: el UPDATE solo aplica si
+ * siguen vigentes (comparacion optimista en el mismo WHERE), asi dos sincronizaciones concurrentes no
+ * se pisan sin enterarse. No invalida caches; eso lo hace {@code CatalogService.bulkUpdateProducts}.
+ */
+@Component
+public class ProductBulkUpdater {
+
+    static final int MAX_ITEMS = 5_000;
+    // Oracle admite hasta 1000 elementos en un IN
+    private static final int IN_CHUNK = 1_000;
+
+    private static final String UPDATE_PRODUCT = """
+            update products
+               set price = coalesce(cast(:price as decimal(12,2)), price),
+                   stock = coalesce(cast(:stock as integer), stock),
+                   updated_at = :now
+             where id = :id
+               and (cast(:expectedPrice as decimal(12,2)) is null or price = cast(:expectedPrice as decimal(12,2)))
+               and (cast(:expectedStock as integer) is null or stock = cast(:expectedStock as integer))
+            """;
+    private static final String FIND_EXISTING = "select id from products where id in (:ids)";
+    private static final String UPDATE_STOCK_BASE =
+            "update product_stock_base set stock_base = :stockBase, updated_at = :now where product_id = :id";
+    private static final String INSERT_STOCK_BASE = """
+            insert into product_stock_base (id, product_id, stock_base, created_at, updated_at)
+            values (:baseId, :id, :stockBase, :now, :now)
+            """;
+
+    /**
+     * Ids de las filas aplicadas y detalle de las rechazadas, en el orden de la solicitud.
+     */
+    public record Result(List<Long> appliedIds, List<ProductBulkUpdateResponse.Rejected> rejected) {
+    }
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final PooledIdAllocator idAllocator;
+
+    public ProductBulkUpdater(NamedParameterJdbcTemplate jdbc, PooledIdAllocator idAllocator) {
+        this.jdbc = jdbc;
+        this.idAllocator = idAllocator;
+    }
+
+    public Result apply(List<ProductBulkUpdateItem> items) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ProductBulkUpdateResponse.Rejected> rejected = new ArrayList<>();
+        List<Integer> candidates = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            String reason = validate(items.get(i), seen);
+            if (reason != null) {
+                rejected.add(rejection(i, items.get(i), reason));
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        SqlParameterSource[] updates = candidates.stream()
+                .map(i -> productParams(items.get(i), now))
+                .toArray(SqlParameterSource[]::new);
+        int[] counts = jdbc.batchUpdate(UPDATE_PRODUCT, updates);
+        List<Integer> applied = new ArrayList<>();
+        List<Integer> missed = new ArrayList<>();
+        for (int k = 0; k < candidates.size(); k++) {
+            (counts[k] > 0 || counts[k] == Statement.SUCCESS_NO_INFO ? applied : missed).add(candidates.get(k));
+        }
+        if (!missed.isEmpty()) {
+            Set<Long> existing = findExisting(missed.stream().map(i -> items.get(i).getId()).toList());
+            for (int i : missed) {
+                ProductBulkUpdateItem item = items.get(i);
+                rejected.add(rejection(i, item, existing.contains(item.getId())
+                        ? "El precio o stock cambió desde la lectura"
+                        : "Producto no encontrado"));
+            }
+        }
+        writeStockBases(applied.stream().map(items::get).filter(item -> item.getStockBase() != null).toList(), now);
+
+        rejected.sort(Comparator.comparingInt(ProductBulkUpdateResponse.Rejected::getIndice));
+        return new Result(applied.stream().map(i -> items.get(i).getId()).toList(), rejected);
+    }
+
+    private static String validate(ProductBulkUpdateItem item, Set<Long> seen) {
+        if (item == null || item.getId() == null) return "ID requerido";
+        if (item.getPrecio() == null && item.getStock() == null && item.getStockBase() == null) {
+            return "Sin cambios: enviar precio, stock o stockBase";
+        }
+        if (isNegative(item.getPrecio()) || isNegative(item.getStock()) || isNegative(item.getStockBase())) {
+            return "Precio y stock no pueden ser negativos";
+        }
+        if (!seen.add(item.getId())) return "ID repetido en la solicitud";
+        return null;
+    }
+
+    private static boolean isNegative(BigDecimal value) {
+        return value != null && value.signum() < 0;
+    }
+
+    private static boolean isNegative(Integer value) {
+        return value != null && value < 0;
+    }
+
+    private static SqlParameterSource productParams(ProductBulkUpdateItem item, LocalDateTime now) {
+        return new MapSqlParameterSource()
+                .addValue("id", item.getId())
+                .addValue("price", item.getPrecio())
+                .addValue("stock", item.getStock())
+                .addValue("expectedPrice", item.getPrecioEsperado())
+                .addValue("expectedStock", item.getStockEsperado())
+                .addValue("now", now);
+    }
+
+    /**
+     * Stock base de las filas aplicadas: un batch de UPDATE y, para los productos que aun no tenian
+     * registro, un batch de INSERT.
+     */
+    private void writeStockBases(List<ProductBulkUpdateItem> items, LocalDateTime now) {
+        if (items.isEmpty()) return;
+        MapSqlParameterSource[] params = items.stream()
+                .map(item -> new MapSqlParameterSource()
+                        .addValue("id", item.getId())
+                        .addValue("stockBase", item.getStockBase())
+                        .addValue("now", now))
+                .toArray(MapSqlParameterSource[]::new);
+        int[] counts = jdbc.batchUpdate(UPDATE_STOCK_BASE, params);
+        List<SqlParameterSource> inserts = new ArrayList<>();
+        LongSupplier ids = null;
+        for (int k = 0; k < counts.length; k++) {
+            if (counts[k] != 0) continue;
+            if (ids == null) ids = idAllocator.ids(ProductStockBase.class);
+            inserts.add(params[k].addValue("baseId", ids.getAsLong()));
+        }
+        jdbc.batchUpdate(INSERT_STOCK_BASE, inserts.toArray(SqlParameterSource[]::new));
+    }
+
+    private Set<Long> findExisting(List<Long> ids) {
+        Set<Long> existing = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += IN_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + IN_CHUNK));
+            existing.addAll(jdbc.queryForList(FIND_EXISTING, Map.of("ids", chunk), Long.class));
+        }
+        return existing;
+    }
+
+    private static ProductBulkUpdateResponse.Rejected rejection(int index, ProductBulkUpdateItem item, String reason) {
+        return ProductBulkUpdateResponse.Rejected.builder()
+                .indice(index)
+                .id(item != null ? item.getId() : null)
+                .motivo(reason)
+                .build();
+    }
+}
@@ -0,0 +1,38 @@
+package cl.pokemart.pokemart_backend.service.catalog;
+
+import cl.pokemart.pokemart_backend.repository.catalog.ProductSort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posicion opaca dentro del listado paginado: orden, valor de la columna de orden e id del ultimo
+ * elemento entregado. Se codifica en base64url para que el cliente lo devuelva tal cual.
+ */
+record ProductCursor(ProductSort sort, Object value, Long id) {
+
+    String encode() {
+        String raw = sort.name() + ":" + value + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ProductCursor decode(String cursor, ProductSort expected) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int first = raw.indexOf(':');
+            int last = raw.lastIndexOf(':');
+            ProductSort sort = ProductSort.valueOf(raw.substring(0, first));
+            if (sort != expected) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El cursor no corresponde al orden solicitado");
+            }
+            Object value = sort.parseValue(raw.substring(first + 1, last));
+            return new ProductCursor(sort, value, Long.valueOf(raw.substring(last + 1)));
+        } catch (ResponseStatusException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor invalido");
+        }
+    }
+}
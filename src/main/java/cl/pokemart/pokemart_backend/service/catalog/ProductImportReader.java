@@ -0,0 +1,245 @@
+package cl.pokemart.pokemart_backend.service.catalog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lector incremental de filas de importacion (CSV con cabecera o NDJSON). Consume el cuerpo caracter a
+ * caracter y nunca retiene mas de una fila: un campo o linea que supera {@link #MAX_RECORD_CHARS} se
+ * descarta y la fila se reporta como error en vez de crecer sin limite.
+ */
+abstract class ProductImportReader {
+
+    static final List<String> FIELDS = List.of(
+            "nombre", "descripcion", "precio", "stock", "stockBase", "imagenUrl", "categoriaSlug");
+    static final int MAX_RECORD_CHARS = 8_192;
+
+    private static final List<String> REQUIRED = List.of("nombre", "precio", "stock", "categoriaSlug");
+    private static final Map<String, String> CANONICAL = new HashMap<>();
+
+    static {
+        FIELDS.forEach(field -> CANONICAL.put(field.toLowerCase(Locale.ROOT), field));
+    }
+
+    /**
+     * Fila leida: {@code values} usa los nombres de {@link #FIELDS}; si {@code error} no es null la fila
+     * no pudo interpretarse.
+     */
+    record Row(long number, Map<String, String> values, String error) {
+    }
+
+    private final Reader in;
+    private int pushback = -1;
+    protected long rowNumber;
+
+    protected ProductImportReader(Reader in) {
+        this.in = in;
+    }
+
+    static ProductImportReader csv(Reader in) throws IOException {
+        return new Csv(in);
+    }
+
+    static ProductImportReader ndjson(Reader in, ObjectMapper objectMapper) {
+        return new Ndjson(in, objectMapper);
+    }
+
+    /**
+     * Siguiente fila, o null al terminar el cuerpo. Las filas vacias se omiten.
+     */
+    abstract Row next() throws IOException;
+
+    protected int read() throws IOException {
+        if (pushback >= 0) {
+            int c = pushback;
+            pushback = -1;
+            return c;
+        }
+        return in.read();
+    }
+
+    protected void unread(int c) {
+        pushback = c;
+    }
+
+    private static String canonical(String header) {
+        return CANONICAL.get(header.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * CSV segun RFC 4180: separador coma, comillas dobles para campos con comas o saltos de linea y
+     * {@code ""} como comilla escapada. La primera fila es la cabecera con los nombres de {@link #FIELDS}
+     * (sin distinguir mayusculas); las columnas desconocidas se ignoran.
+     */
+    private static final class Csv extends ProductImportReader {
+
+        private final String[] columns;
+        private boolean eof;
+        private boolean overflow;
+
+        Csv(Reader in) throws IOException {
+            super(in);
+            List<String> header = record();
+            if (header == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Archivo vacio");
+            }
+            if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+                header.set(0, header.get(0).substring(1));
+            }
+            columns = new String[header.size()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = canonical(header.get(i));
+            }
+            List<String> missing = REQUIRED.stream().filter(f -> !Arrays.asList(columns).contains(f)).toList();
+            if (!missing.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Faltan columnas: " + String.join(", ", missing));
+            }
+        }
+
+        @Override
+        Row next() throws IOException {
+            while (true) {
+                List<String> fields = record();
+                if (fields == null) return null;
+                if (fields.size() == 1 && fields.get(0).isBlank()) continue;
+                rowNumber++;
+                if (overflow) {
+                    return new Row(rowNumber, Map.of(), "Fila demasiado larga (maximo " + MAX_RECORD_CHARS + " caracteres)");
+                }
+                Map<String, String> values = new LinkedHashMap<>();
+                for (int i = 0; i < fields.size() && i < columns.length; i++) {
+                    if (columns[i] != null) values.put(columns[i], fields.get(i));
+                }
+                return new Row(rowNumber, values, null);
+            }
+        }
+
+        private List<String> record() throws IOException {
+            if (eof) return null;
+            overflow = false;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            int length = 0;
+            boolean quoted = false;
+            boolean started = false;
+            while (true) {
+                int c = read();
+                if (c == -1) {
+                    eof = true;
+                    if (!started) return null;
+                    fields.add(field.toString());
+                    return fields;
+                }
+                started = true;
+                if (quoted) {
+                    if (c == '"') {
+                        int n = read();
+                        if (n == '"') {
+                            length = append(field, '"', length);
+                        } else {
+                            quoted = false;
+                            if (n != -1) unread(n);
+                        }
+                    } else {
+                        length = append(field, (char) c, length);
+                    }
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == '\r') {
+                    if (c == '\r') {
+                        int n = read();
+                        if (n != '\n' && n != -1) unread(n);
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else {
+                    length = append(field, (char) c, length);
+                }
+            }
+        }
+
+        private int append(StringBuilder field, char c, int length) {
+            if (length >= MAX_RECORD_CHARS) {
+                overflow = true;
+                return length;
+            }
+            field.append(c);
+            return length + 1;
+        }
+    }
+
+    /**
+     * Un objeto JSON por linea con los nombres de {@link #FIELDS}; los valores se leen como texto.
+     */
+    private static final class Ndjson extends ProductImportReader {
+
+        private final ObjectMapper objectMapper;
+        private final StringBuilder line = new StringBuilder();
+
+        Ndjson(Reader in, ObjectMapper objectMapper) {
+            super(in);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        Row next() throws IOException {
+            while (true) {
+                line.setLength(0);
+                boolean overflow = false;
+                int c = read();
+                if (c == -1) return null;
+                while (c != -1 && c != '\n') {
+                    if (line.length() < MAX_RECORD_CHARS) {
+                        line.append((char) c);
+                    } else {
+                        overflow = true;
+                    }
+                    c = read();
+                }
+                if (!overflow && line.toString().isBlank()) continue;
+                rowNumber++;
+                if (overflow) {
+                    return new Row(rowNumber, Map.of(), "Fila demasiado larga (maximo " + MAX_RECORD_CHARS + " caracteres)");
+                }
+                return parse(line.toString());
+            }
+        }
+
+        private Row parse(String text) {
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(text);
+            } catch (JsonProcessingException ex) {
+                return new Row(rowNumber, Map.of(), "JSON invalido");
+            }
+            if (node == null || !node.isObject()) {
+                return new Row(rowNumber, Map.of(), "Se esperaba un objeto JSON");
+            }
+            Map<String, String> values = new LinkedHashMap<>();
+            for (Map.Entry<String, JsonNode> entry : node.properties()) {
+                String field = canonical(entry.getKey());
+                JsonNode value = entry.getValue();
+                if (field != null && value != null && !value.isNull()) {
+                    values.put(field, value.isValueNode() ? value.asText() : value.toString());
+                }
+            }
+            return new Row(rowNumber, values, null);
+        }
+    }
+}
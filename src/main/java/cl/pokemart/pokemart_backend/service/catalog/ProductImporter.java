@@ -0,0 +1,355 @@
+package cl.pokemart.pokemart_backend.service.catalog;
+
+import cl.pokemart.pokemart_backend.dto.catalog.ProductImportResponse;
+import cl.pokemart.pokemart_backend.dto.catalog.ProductRequest;
+import cl.pokemart.pokemart_backend.model.catalog.Category;
+import cl.pokemart.pokemart_backend.model.catalog.Product;
+import cl.pokemart.pokemart_backend.model.catalog.ProductStockBase;
+import cl.pokemart.pokemart_backend.service.common.PooledIdAllocator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Importacion masiva de productos. Lee el cuerpo fila a fila ({@link ProductImportReader}), valida cada
+ * fila con las mismas reglas de {@link ProductRequest} y escribe lotes de {@link #BATCH_SIZE} filas con
+ * JDBC batch, cada lote en su propia transaccion. La memoria usada depende del tamaño del lote y no del
+ * archivo: solo se retienen el lote en curso, los ids de categoria ya resueltos y hasta
+ * {@link #MAX_REPORTED_ERRORS} errores. Los ids de productos, categorias y stock base salen de sus
+ * secuencias pooled ({@link PooledIdAllocator}), asi no hace falta releer las filas recien insertadas.
+ * <p>
+ * Un producto se identifica por su nombre exacto: si ya existe se actualizan descripcion, precio, stock,
+ * categoria e imagen (una imagen vacia conserva la actual) sin cambiar su estado activo.
+ * No invalida caches; eso lo hace {@code CatalogService.importProducts} una vez al final.
+ */
+@Component
+public class ProductImporter {
+
+    public enum Format { CSV, NDJSON }
+
+    static final int BATCH_SIZE = 500;
+    static final int MAX_REPORTED_ERRORS = 1_000;
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImporter.class);
+
+    private static final String FIND_PRODUCTS = "select id, name from products where name in (:names) order by id";
+    private static final String INSERT_PRODUCT = """
+            insert into products (id, name, description, price, stock, image_url, review_count, review_avg, rating_sum,
+                                  rating_count_1, rating_count_2, rating_count_3, rating_count_4, rating_count_5,
+                                  category_id, active, created_at, updated_at)
+            values (:id, :name, :description, :price, :stock, :imageUrl, 0, 0, 0, 0, 0, 0, 0, 0,
+                    :categoryId, :active, :now, :now)
+            """;
+    private static final String UPDATE_PRODUCT = """
+            update products
+               set description = :description, price = :price, stock = :stock,
+                   image_url = coalesce(:imageUrl, image_url), category_id = :categoryId, updated_at = :now
+             where id = :id
+            """;
+    private static final String FIND_STOCK_BASES = "select product_id from product_stock_base where product_id in (:ids)";
+    private static final String INSERT_STOCK_BASE = """
+            insert into product_stock_base (id, product_id, stock_base, created_at, updated_at)
+            values (:baseId, :id, :stockBase, :now, :now)
+            """;
+    private static final String UPDATE_STOCK_BASE =
+            "update product_stock_base set stock_base = :stockBase, updated_at = :now where product_id = :id";
+    private static final String FIND_CATEGORY =
+            "select min(id) from categories where lower(slug) = :slug or lower(slug) = :normalized";
+    private static final String INSERT_CATEGORY = """
+            insert into categories (id, slug, name, created_at, updated_at)
+            values (:id, :normalized, :name, :now, :now)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate batchTx;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final PooledIdAllocator idAllocator;
+
+    public ProductImporter(NamedParameterJdbcTemplate jdbc,
+                           PlatformTransactionManager transactionManager,
+                           Validator validator,
+                           ObjectMapper objectMapper,
+                           PooledIdAllocator idAllocator) {
+        this.jdbc = jdbc;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.idAllocator = idAllocator;
+        this.batchTx = new TransactionTemplate(transactionManager);
+        this.batchTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Importa todas las filas del cuerpo. Los lotes confirmados quedan guardados aunque un lote posterior
+     * falle; las filas de un lote fallido se reportan como rechazadas.
+     */
+    public ProductImportResponse importProducts(InputStream body, Format format) {
+        Run run = new Run(idAllocator.ids(Product.class), idAllocator.ids(Category.class),
+                idAllocator.ids(ProductStockBase.class));
+        List<Pending> batch = new ArrayList<>(BATCH_SIZE);
+        Set<String> batchNames = new HashSet<>();
+        long lastRow = 0;
+        try (Reader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            ProductImportReader rows = format == Format.CSV
+                    ? ProductImportReader.csv(reader)
+                    : ProductImportReader.ndjson(reader, objectMapper);
+            for (ProductImportReader.Row row = rows.next(); row != null; row = rows.next()) {
+                run.processed++;
+                lastRow = row.number();
+                Pending pending;
+                try {
+                    pending = toPending(row);
+                } catch (IllegalArgumentException ex) {
+                    run.fail(row.number(), ex.getMessage());
+                    continue;
+                }
+                // Un nombre repetido dentro del lote se escribe en el lote siguiente: la ultima fila gana
+                if (batch.size() == BATCH_SIZE || batchNames.contains(pending.name())) {
+                    flush(batch, run);
+                    batchNames.clear();
+                }
+                batch.add(pending);
+                batchNames.add(pending.name());
+            }
+        } catch (IOException ex) {
+            log.warn("Importacion de productos interrumpida: {}", ex.getMessage());
+            run.fail(lastRow + 1, "No se pudo leer el resto del archivo");
+        }
+        flush(batch, run);
+        return run.toResponse();
+    }
+
+    private Pending toPending(ProductImportReader.Row row) {
+        if (row.error() != null) {
+            throw new IllegalArgumentException(row.error());
+        }
+        Map<String, String> values = row.values();
+        ProductRequest request = new ProductRequest(
+                trimmed(values.get("nombre")),
+                trimmed(values.get("descripcion")),
+                decimal(values, "precio"),
+                integer(values, "stock"),
+                integer(values, "stockBase"),
+                trimmed(values.get("imagenUrl")),
+                trimmed(values.get("categoriaSlug")));
+        Set<ConstraintViolation<ProductRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        return new Pending(row.number(), request);
+    }
+
+    private void flush(List<Pending> batch, Run run) {
+        if (batch.isEmpty()) return;
+        try {
+            int created = batchTx.execute(status -> write(batch, run));
+            run.created += created;
+            run.updated += batch.size() - created;
+        } catch (DataAccessException ex) {
+            log.warn("Lote de importacion rechazado (filas {}-{}): {}", batch.get(0).row(),
+                    batch.get(batch.size() - 1).row(), ex.getMostSpecificCause().getMessage());
+            // Las categorias creadas en el lote se revirtieron junto con el
+            run.categoryIds.clear();
+            batch.forEach(p -> run.fail(p.row(), "No se pudo guardar el lote de esta fila"));
+        }
+        batch.clear();
+    }
+
+    /**
+     * Escribe un lote: una consulta para resolver los productos existentes, un batch de inserts, uno de
+     * updates y lo mismo para el stock base. Devuelve la cantidad de productos creados.
+     */
+    private int write(List<Pending> batch, Run run) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Long> existing = findProductIds(batch.stream().map(Pending::name).toList());
+        List<SqlParameterSource> inserts = new ArrayList<>();
+        List<SqlParameterSource> updates = new ArrayList<>();
+        for (Pending pending : batch) {
+            ProductRequest request = pending.request();
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("name", pending.name())
+                    .addValue("description", request.getDescripcion())
+                    .addValue("price", request.getPrecio())
+                    .addValue("stock", request.getStock())
+                    .addValue("imageUrl", request.getImagenUrl())
+                    .addValue("categoryId", categoryId(request.getCategoriaSlug(), run, now))
+                    .addValue("active", Boolean.TRUE)
+                    .addValue("now", now);
+            Long id = existing.get(pending.name());
+            if (id == null) {
+                id = run.productIds.getAsLong();
+                existing.put(pending.name(), id);
+                inserts.add(params.addValue("id", id));
+            } else {
+                updates.add(params.addValue("id", id));
+            }
+        }
+        jdbc.batchUpdate(INSERT_PRODUCT, inserts.toArray(SqlParameterSource[]::new));
+        jdbc.batchUpdate(UPDATE_PRODUCT, updates.toArray(SqlParameterSource[]::new));
+        writeStockBases(batch, existing, run.stockBaseIds, now);
+        return inserts.size();
+    }
+
+    /**
+     * Stock base como en {@code CatalogService.ensureStockBase}: los productos sin registro lo reciben
+     * (por defecto igual al stock) y los que ya tienen uno solo cambian si la fila trae stockBase.
+     */
+    private void writeStockBases(List<Pending> batch, Map<String, Long> productIds, LongSupplier stockBaseIds,
+                                 LocalDateTime now) {
+        Set<Long> withBase = new HashSet<>(jdbc.queryForList(FIND_STOCK_BASES,
+                Map.of("ids", productIds.values()), Long.class));
+        List<SqlParameterSource> inserts = new ArrayList<>();
+        List<SqlParameterSource> updates = new ArrayList<>();
+        for (Pending pending : batch) {
+            Long id = productIds.get(pending.name());
+            Integer stockBase = pending.request().getStockBase();
+            if (!withBase.contains(id)) {
+                inserts.add(stockBaseParams(id, stockBase != null ? stockBase : pending.request().getStock(), now)
+                        .addValue("baseId", stockBaseIds.getAsLong()));
+            } else if (stockBase != null) {
+                updates.add(stockBaseParams(id, stockBase, now));
+            }
+        }
+        jdbc.batchUpdate(INSERT_STOCK_BASE, inserts.toArray(SqlParameterSource[]::new));
+        jdbc.batchUpdate(UPDATE_STOCK_BASE, updates.toArray(SqlParameterSource[]::new));
+    }
+
+    private static MapSqlParameterSource stockBaseParams(Long productId, Integer stockBase, LocalDateTime now) {
+        return new MapSqlParameterSource()
+                .addValue("id", productId)
+                .addValue("stockBase", stockBase)
+                .addValue("now", now);
+    }
+
+    /**
+     * Nombre -> id del producto existente (el de menor id si el nombre se repite en la BD).
+     */
+    private Map<String, Long> findProductIds(List<String> names) {
+        Map<String, Long> ids = new HashMap<>();
+        jdbc.query(FIND_PRODUCTS, Map.of("names", names),
+                rs -> { ids.putIfAbsent(rs.getString("name"), rs.getLong("id")); });
+        return ids;
+    }
+
+    /**
+     * Resuelve la categoria como {@code CatalogService.resolveCategory} (creandola si no existe) y recuerda
+     * el id durante toda la importacion.
+     */
+    private Long categoryId(String slug, Run run, LocalDateTime now) {
+        String key = slug.toLowerCase(Locale.ROOT);
+        Long cached = run.categoryIds.get(key);
+        if (cached != null) return cached;
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("slug", key)
+                .addValue("normalized", key.replace(" ", "-"))
+                .addValue("name", slug)
+                .addValue("now", now);
+        Long id = jdbc.queryForObject(FIND_CATEGORY, params, Long.class);
+        if (id == null) {
+            id = run.newCategoryIds.getAsLong();
+            jdbc.update(INSERT_CATEGORY, params.addValue("id", id));
+        }
+        run.categoryIds.put(key, id);
+        return id;
+    }
+
+    private static String trimmed(String value) {
+        return StringUtils.hasText(value) ? value.trim() : null;
+    }
+
+    private static BigDecimal decimal(Map<String, String> values, String field) {
+        String value = trimmed(values.get(field));
+        if (value == null) return null;
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(field + ": debe ser un número");
+        }
+    }
+
+    private static Integer integer(Map<String, String> values, String field) {
+        String value = trimmed(values.get(field));
+        if (value == null) return null;
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(field + ": debe ser un entero");
+        }
+    }
+
+    private record Pending(long row, ProductRequest request) {
+        String name() {
+            return request.getNombre();
+        }
+    }
+
+    /**
+     * Estado de una importacion en curso.
+     */
+    private static final class Run {
+        private final LongSupplier productIds;
+        private final LongSupplier newCategoryIds;
+        private final LongSupplier stockBaseIds;
+        private final Map<String, Long> categoryIds = new HashMap<>();
+        private final List<ProductImportResponse.RowError> errors = new ArrayList<>();
+        private int processed;
+        private int created;
+        private int updated;
+        private int failed;
+
+        Run(LongSupplier productIds, LongSupplier newCategoryIds, LongSupplier stockBaseIds) {
+            this.productIds = productIds;
+            this.newCategoryIds = newCategoryIds;
+            this.stockBaseIds = stockBaseIds;
+        }
+
+        void fail(long row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(ProductImportResponse.RowError.builder().fila(row).mensaje(message).build());
+            }
+        }
+
+        ProductImportResponse toResponse() {
+            return ProductImportResponse.builder()
+                    .procesadas(processed)
+                    .creadas(created)
+                    .actualizadas(updated)
+                    .fallidas(failed)
+                    .errores(errors)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package cl.pokemart.pokemart_backend.service.catalog;
+
+import cl.pokemart.pokemart_backend.dto.catalog.ProductResponse;
+import cl.pokemart.pokemart_backend.model.catalog.ProductOffer;
+import cl.pokemart.pokemart_backend.repository.catalog.ProductRow;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Unico punto de armado de {@link ProductResponse} a partir de la proyeccion y la oferta vigente.
+ */
+final class ProductResponses {
+
+    private ProductResponses() {
+    }
+
+    static List<ProductResponse> assemble(List<ProductRow> rows, ActiveOfferIndex offers) {
+        return rows.stream()
+                .map(row -> from(row, offers.find(row.id())))
+                .toList();
+    }
+
+    static ProductResponse from(ProductRow row, Optional<ProductOffer> offerOpt) {
+        ProductResponse.OfferInfo offerInfo = null;
+        if (offerOpt.isPresent() && offerOpt.get().isLive(LocalDateTime.now())) {
+            var o = offerOpt.get();
+            offerInfo = ProductResponse.OfferInfo.builder()
+                    .discountPct(o.getDiscountPct())
+                    .endsAt(o.getEndsAt() != null ? o.getEndsAt().toString() : null)
+                    .build();
+        }
+        long reviewCount = row.reviewCount() != null ? row.reviewCount() : 0L;
+        double reviewAvg = row.reviewAvg() != null ? row.reviewAvg() : 0.0;
+        return ProductResponse.builder()
+                .id(row.id())
+                .nombre(row.name())
+                .descripcion(row.description())
+                .precio(row.price())
+                .stock(row.stock())
+                .stockBase(row.stockBase())
+                .imagenUrl(row.imageUrl())
+                .categoria(row.categoryName())
+                .offer(offerInfo)
+                .vendedor(null)
+                .reviewCount((int) reviewCount)
+                .reviewAvg(reviewAvg)
+                .active(row.active())
+                .build();
+    }
+}
@@ -0,0 +1,245 @@
+package cl.pokemart.pokemart_backend.service.catalog;
+
+import cl.pokemart.pokemart_backend.repository.catalog.ProductRow;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Indice invertido en memoria sobre nombre, descripcion y categoria de los productos activos.
+ * Los terminos se pliegan como en {@code BlogService.slugify} (NFD sin diacriticos, minusculas:
+ * "Poción" y "pocion" son el mismo termino, ñ se indexa como n). Cada termino de la consulta puede
+ * coincidir exacto, como prefijo o con un error de tipeo (distancia de edicion 1); un producto debe
+ * coincidir con todos los terminos y se puntua por campo (nombre &gt; categoria &gt; descripcion).
+ * Se construye una vez desde la BD y luego se actualiza por producto.
+ */
+public final class ProductSearchIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+    private static final Set<String> STOPWORDS = Set.of(
+            "de", "del", "la", "las", "el", "los", "un", "una", "y", "o", "en", "con", "para", "por", "al");
+
+    static final int NAME_WEIGHT = 3;
+    static final int CATEGORY_WEIGHT = 2;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final int EXACT_BOOST = 3;
+    private static final int PREFIX_BOOST = 2;
+    private static final int FUZZY_BOOST = 1;
+    private static final int MIN_FUZZY_LENGTH = 4;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // termino -> (producto -> peso acumulado de los campos donde aparece)
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> termsByProduct = new HashMap<>();
+    private volatile boolean built;
+
+    /**
+     * Construye el indice la primera vez. La carga ocurre con el lock de escritura tomado, asi una
+     * actualizacion confirmada mientras tanto se aplica despues y no se pierde.
+     */
+    public void ensureBuilt(Supplier<List<ProductRow>> loader) {
+        if (built) return;
+        lock.writeLock().lock();
+        try {
+            if (built) return;
+            postings.clear();
+            termsByProduct.clear();
+            for (ProductRow row : loader.get()) {
+                add(row);
+            }
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Descarta el indice para que la proxima busqueda lo reconstruya completo; para cambios masivos
+     * donde reindexar producto por producto no compensa.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            built = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reindexa un producto; si quedo inactivo se elimina del indice.
+     */
+    public void upsert(ProductRow row) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(row.id());
+            if (Boolean.TRUE.equals(row.active())) {
+                add(row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids de productos que coinciden con todos los terminos de {@code query}, de mayor a menor relevancia.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) return List.of();
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+            for (String term : terms) {
+                Map<Long, Integer> termScores = scoreTerm(term);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+                if (scores.isEmpty()) return List.of();
+            }
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder())
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return termsByProduct.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String fold(String value) {
+        if (value == null) return "";
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokenize(String value) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(fold(value))) {
+            if (token.length() >= 2 && !STOPWORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Mejor puntaje de cada producto para un termino de la consulta: exacto, luego prefijo y, si
+     * ninguno coincide, terminos a distancia de edicion 1.
+     */
+    private Map<Long, Integer> scoreTerm(String term) {
+        Map<Long, Integer> scores = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Integer>> entry
+                : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+            int boost = entry.getKey().equals(term) ? EXACT_BOOST : PREFIX_BOOST;
+            accumulate(scores, entry.getValue(), boost);
+        }
+        if (scores.isEmpty() && term.length() >= MIN_FUZZY_LENGTH) {
+            for (Map.Entry<String, Map<Long, Integer>> entry : postings.entrySet()) {
+                if (withinOneEdit(term, entry.getKey())) {
+                    accumulate(scores, entry.getValue(), FUZZY_BOOST);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private static void accumulate(Map<Long, Integer> scores, Map<Long, Integer> posting, int boost) {
+        posting.forEach((id, weight) -> scores.merge(id, weight * boost, Math::max));
+    }
+
+    /**
+     * Distancia de Levenshtein &lt;= 1 (una insercion, borrado o sustitucion) sin armar la matriz.
+     */
+    static boolean withinOneEdit(String a, String b) {
+        int la = a.length();
+        int lb = b.length();
+        if (Math.abs(la - lb) > 1) return false;
+        int i = 0;
+        int j = 0;
+        boolean edited = false;
+        while (i < la && j < lb) {
+            if (a.charAt(i) == b.charAt(j)) {
+                i++;
+                j++;
+                continue;
+            }
+            if (edited) return false;
+            edited = true;
+            if (la > lb) {
+                i++;
+            } else if (lb > la) {
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return !edited || (i == la && j == lb);
+    }
+
+    private void add(ProductRow row) {
+        Map<String, Integer> weights = new HashMap<>();
+        addField(weights, row.name(), NAME_WEIGHT);
+        addField(weights, row.categoryName(), CATEGORY_WEIGHT);
+        addField(weights, row.description(), DESCRIPTION_WEIGHT);
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(row.id(), weight));
+        termsByProduct.put(row.id(), new HashSet<>(weights.keySet()));
+    }
+
+    private static void addField(Map<String, Integer> weights, String text, int weight) {
+        // Un termino repetido en el mismo campo cuenta una vez
+        for (String term : new HashSet<>(tokenize(text))) {
+            weights.merge(term, weight, Integer::sum);
+        }
+    }
+
+    private void removeInternal(Long productId) {
+        Set<String> terms = termsByProduct.remove(productId);
+        if (terms == null) return;
+        for (String term : terms) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting == null) continue;
+            posting.remove(productId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package cl.pokemart.pokemart_backend.service.catalog;
+
+import java.util.Set;
+
+/**
+ * Un cambio admin ya confirmado (edicion, alta, baja, carga masiva o importacion) pudo tocar el stock
+ * de estos productos. {@code productIds} vacio significa todo el catalogo.
+ */
+public record ProductsChangedEvent(Set<Long> productIds) {
+}
@@ -0,0 +1,11 @@
+package cl.pokemart.pokemart_backend.service.catalog;
+
+import java.util.Set;
+
+/**
+ * Checkouts, reservas o el flush del modo LEDGER ya confirmaron un cambio de {@code products.stock} en
+ * estos productos. A diferencia de {@link ProductsChangedEvent} no invalida los contadores del ledger,
+ * que ya cuentan ese stock; solo refresca lo que el catalogo publica.
+ */
+public record StockChangedEvent(Set<Long> productIds) {
+}
@@ -0,0 +1,283 @@
+package cl.pokemart.pokemart_backend.service.common;
+
+import cl.pokemart.pokemart_backend.config.CacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Region de cache tipada sobre Caffeine. Cada valor se guarda junto al instante en que se cargo:
+ * es fresco durante {@code ttl} y se conserva {@code staleTtl} adicional solo como respaldo si la
+ * recarga falla. Los parches in-place conservan el instante de carga, por lo que no extienden su vida.
+ */
+public final class CacheRegion<V> {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheRegion.class);
+
+    private final String name;
+    private final long ttlNanos;
+    private final Duration loadTimeout;
+    private final StatsCounter stats = new ConcurrentStatsCounter();
+    private final Cache<Object, Object> cache;
+    // Cargas en curso por clave; una invalidacion que las alcanza se anota en la carga afectada
+    private final ConcurrentHashMap<String, Load<V>> inflight = new ConcurrentHashMap<>();
+
+    CacheRegion(String name, CacheProperties.Region config) {
+        this.name = name;
+        this.ttlNanos = config.getTtl().toNanos();
+        this.loadTimeout = config.getLoadTimeout();
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .expireAfter(new LoadTimeExpiry(ttlNanos + config.getStaleTtl().toNanos()))
+                .recordStats(() -> stats);
+        if (config.getMaximumWeight() != null) {
+            builder.maximumWeight(config.getMaximumWeight()).weigher(CacheRegion::weigh);
+        } else {
+            builder.maximumSize(config.getMaximumSize());
+        }
+        this.cache = builder.build();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    Cache<Object, Object> nativeCache() {
+        return cache;
+    }
+
+    /**
+     * Valor fresco para la clave o {@code null}.
+     */
+    public V get(String key) {
+        Entry<V> entry = peek(key);
+        if (entry != null && isFresh(entry)) {
+            stats.recordHits(1);
+            return entry.value();
+        }
+        stats.recordMisses(1);
+        return null;
+    }
+
+    /**
+     * Devuelve el valor fresco o lo carga. Solo un llamador por clave ejecuta {@code loader}; el resto
+     * espera su resultado hasta {@code loadTimeout}. Si la carga falla o la espera se agota se sirve
+     * el valor vencido (si aun se conserva).
+     */
+    public V getOrLoad(String key, Supplier<V> loader) {
+        Entry<V> current = peek(key);
+        if (current != null && isFresh(current)) {
+            stats.recordHits(1);
+            return current.value();
+        }
+        stats.recordMisses(1);
+
+        Load<V> pending = new Load<>();
+        Load<V> running = inflight.putIfAbsent(key, pending);
+        if (running != null) {
+            return await(key, running.result, current, loader);
+        }
+        try {
+            return load(key, pending, loader);
+        } catch (RuntimeException ex) {
+            if (current != null) {
+                log.warn("Fallo la recarga de {}:{}; se sirve el valor anterior", name, key, ex);
+                return current.value();
+            }
+            throw ex;
+        }
+    }
+
+    private V load(String key, Load<V> pending, Supplier<V> loader) {
+        long start = System.nanoTime();
+        try {
+            V value = pending.store(loader.get(), loaded -> cache.put(key, new Entry<>(loaded, System.nanoTime())));
+            stats.recordLoadSuccess(System.nanoTime() - start);
+            pending.result.complete(value);
+            return value;
+        } catch (RuntimeException ex) {
+            stats.recordLoadFailure(System.nanoTime() - start);
+            pending.result.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inflight.remove(key, pending);
+        }
+    }
+
+    public void put(String key, V value) {
+        cache.put(key, new Entry<>(value, System.nanoTime()));
+    }
+
+    public void evict(String key) {
+        Load<V> running = inflight.remove(key);
+        if (running != null) running.invalidate();
+        cache.invalidate(key);
+    }
+
+    public void evictIf(Predicate<V> predicate) {
+        inflight.values().forEach(load -> load.evictIf(predicate));
+        cache.asMap().entrySet().removeIf(e -> {
+            Entry<V> entry = entry(e.getValue());
+            return entry != null && predicate.test(entry.value());
+        });
+    }
+
+    /**
+     * Reemplaza in-place los valores para los que {@code patch} devuelve una instancia distinta,
+     * conservando el instante de carga original. Tambien se aplica al resultado de las cargas en curso,
+     * que pueden haber leido antes o despues del cambio: {@code patch} debe ser idempotente.
+     */
+    public void patchAll(UnaryOperator<V> patch) {
+        inflight.values().forEach(load -> load.patch(patch));
+        for (Object key : List.copyOf(cache.asMap().keySet())) {
+            cache.asMap().computeIfPresent(key, (k, raw) -> {
+                Entry<V> entry = entry(raw);
+                if (entry == null) return raw;
+                V patched = patch.apply(entry.value());
+                return patched == entry.value() ? raw : new Entry<>(patched, entry.loadedAt());
+            });
+        }
+    }
+
+    public void clear() {
+        for (String key : List.copyOf(inflight.keySet())) {
+            Load<V> running = inflight.remove(key);
+            if (running != null) running.invalidate();
+        }
+        cache.invalidateAll();
+    }
+
+    private V await(String key, CompletableFuture<V> running, Entry<V> stale, Supplier<V> loader) {
+        try {
+            return running.get(loadTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            if (stale != null) return stale.value();
+            log.warn("Espera de carga agotada para {}:{}; se carga sin coalescer", name, key);
+            return loader.get();
+        } catch (ExecutionException ex) {
+            if (stale != null) return stale.value();
+            if (ex.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException("Fallo la carga de " + name + ":" + key, ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            if (stale != null) return stale.value();
+            throw new IllegalStateException("Carga interrumpida para " + name + ":" + key, ex);
+        }
+    }
+
+    private boolean isFresh(Entry<V> entry) {
+        return System.nanoTime() - entry.loadedAt() < ttlNanos;
+    }
+
+    private Entry<V> peek(String key) {
+        return entry(cache.policy().getIfPresentQuietly(key));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Entry<V> entry(Object raw) {
+        return raw instanceof Entry<?> e ? (Entry<V>) e : null;
+    }
+
+    /**
+     * Peso de una entrada para {@code maximumWeight}: el tamano de la coleccion envuelta en la
+     * {@link Entry} (minimo 1); cualquier otro valor pesa 1.
+     */
+    private static int weigh(Object key, Object value) {
+        Object unwrapped = value instanceof Entry<?> entry ? entry.value() : value;
+        return unwrapped instanceof Collection<?> collection ? Math.max(1, collection.size()) : 1;
+    }
+
+    /**
+     * Valor cacheado y su instante de carga (System.nanoTime, mismo reloj que Caffeine).
+     */
+    record Entry<V>(V value, long loadedAt) {}
+
+    /**
+     * Carga en curso de una clave. Las invalidaciones que la alcanzan mientras corre se anotan aqui y se
+     * resuelven al guardar el resultado: solo se descarta (o parcha) esta carga, no las de otras claves.
+     * Cada invalidacion se anota primero en las cargas y despues se aplica a la cache, asi una carga que
+     * ya guardo su valor queda cubierta por el segundo paso.
+     */
+    private static final class Load<V> {
+
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        private final List<Predicate<V>> evictions = new ArrayList<>();
+        private final List<UnaryOperator<V>> patches = new ArrayList<>();
+        private boolean invalidated;
+        private boolean stored;
+
+        synchronized void invalidate() {
+            invalidated = true;
+        }
+
+        synchronized void evictIf(Predicate<V> predicate) {
+            if (!stored) evictions.add(predicate);
+        }
+
+        synchronized void patch(UnaryOperator<V> patch) {
+            if (!stored) patches.add(patch);
+        }
+
+        /**
+         * Aplica lo anotado y entrega el valor a {@code put} salvo que una invalidacion lo alcance.
+         * Devuelve el valor parchado.
+         */
+        synchronized V store(V loaded, Consumer<V> put) {
+            stored = true;
+            V value = loaded;
+            for (UnaryOperator<V> patch : patches) value = patch.apply(value);
+            if (invalidated) return value;
+            for (Predicate<V> eviction : evictions) {
+                if (eviction.test(value)) return value;
+            }
+            put.accept(value);
+            return value;
+        }
+    }
+
+    /**
+     * Expira cada entrada a {@code lifetimeNanos} desde su carga; reescribir un valor parchado no
+     * reinicia su vida util.
+     */
+    private record LoadTimeExpiry(long lifetimeNanos) implements Expiry<Object, Object> {
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            return remaining(value, currentTime);
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return remaining(value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private long remaining(Object value, long currentTime) {
+            if (value instanceof Entry<?> entry) {
+                return Math.max(0, lifetimeNanos - (currentTime - entry.loadedAt()));
+            }
+            return lifetimeNanos;
+        }
+    }
+}
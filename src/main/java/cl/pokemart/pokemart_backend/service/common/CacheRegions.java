@@ -0,0 +1,37 @@
+package cl.pokemart.pokemart_backend.service.common;
+
+import cl.pokemart.pokemart_backend.config.CacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registro de las regiones de cache configuradas en {@code app.cache.regions}.
+ */
+public class CacheRegions {
+
+    private final Map<String, CacheRegion<?>> regions;
+
+    public CacheRegions(Map<String, CacheProperties.Region> config) {
+        Map<String, CacheRegion<?>> built = new LinkedHashMap<>();
+        config.forEach((name, region) -> built.put(name, new CacheRegion<>(name, region)));
+        this.regions = Collections.unmodifiableMap(built);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> CacheRegion<V> get(String name) {
+        CacheRegion<?> region = regions.get(name);
+        if (region == null) {
+            throw new IllegalStateException("Region de cache no configurada: " + name);
+        }
+        return (CacheRegion<V>) region;
+    }
+
+    public Map<String, Cache<Object, Object>> nativeCaches() {
+        Map<String, Cache<Object, Object>> caches = new LinkedHashMap<>();
+        regions.forEach((name, region) -> caches.put(name, region.nativeCache()));
+        return caches;
+    }
+}
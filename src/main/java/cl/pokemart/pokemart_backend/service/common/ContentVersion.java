@@ -0,0 +1,34 @@
+package cl.pokemart.pokemart_backend.service.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version monotona de un conjunto de contenido publico (catalogo, blog). Los servicios la incrementan
+ * despues de cada cambio confirmado y los controladores derivan de ella ETags fuertes sin tocar la BD.
+ */
+public final class ContentVersion {
+
+    private final String prefix;
+    // Distingue reinicios: la version vuelve a 0 al arrancar
+    private final String instance = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+
+    public ContentVersion(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    public void bump() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * ETag para la version actual; solo cambia cuando cambia el contenido.
+     */
+    public String etag() {
+        return prefix + "-" + instance + "-" + version.get();
+    }
+}
@@ -0,0 +1,58 @@
+package cl.pokemart.pokemart_backend.service.common;
+
+import cl.pokemart.pokemart_backend.model.common.PooledSequence;
+import cl.pokemart.pokemart_backend.model.common.PooledSequenceGenerator;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Ids para filas que se insertan por JDBC en tablas con {@link PooledSequence}. Toma bloques de la misma
+ * secuencia que Hibernate y con la misma semantica pooled ({@code nextval} = ultimo id del bloque, con el
+ * incremento real de la secuencia), asi cada bloque lo usa un solo escritor y los ids no chocan aunque
+ * Hibernate y JDBC inserten a la vez.
+ */
+@Component
+public class PooledIdAllocator {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    public PooledIdAllocator(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Fuente de ids para una entidad, pensada para un lote o una importacion: no es thread-safe y los ids
+     * que no alcance a usar quedan como hueco.
+     */
+    public LongSupplier ids(Class<?> entity) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        if (!(sessionFactory.getMappingMetamodel().getEntityDescriptor(entity).getGenerator()
+                instanceof PooledSequenceGenerator generator)) {
+            throw new IllegalArgumentException(entity.getSimpleName() + " no usa @PooledSequence");
+        }
+        String nextVal = sessionFactory.getJdbcServices().getDialect().getSequenceSupport()
+                .getSequenceNextValString(generator.getDatabaseStructure().getPhysicalName().render());
+        int increment = generator.getOptimizer().getIncrementSize();
+        return new LongSupplier() {
+            private long next = 1;
+            private long last = 0;
+
+            @Override
+            public long getAsLong() {
+                if (next > last) {
+                    Long value = jdbcTemplate.queryForObject(nextVal, Long.class);
+                    // Bloque (value - increment, value]; el primer valor de una secuencia nueva (1) es un bloque de un id
+                    last = value;
+                    next = Math.max(1, value - increment + 1);
+                }
+                return next++;
+            }
+        };
+    }
+}
@@ -0,0 +1,170 @@
+package cl.pokemart.pokemart_backend.service.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Timing wheel con hash: {@code wheelSize} ranuras de {@code tick} cada una. Un timer cae en la ranura
+ * de su tick de vencimiento (modulo el tamaño) y solo se dispara cuando la rueda llega a ese tick, asi
+ * programar y cancelar cuestan O(1) y cada tick revisa una sola ranura. Los timers lejanos dan varias
+ * vueltas en la misma ranura.
+ * <p>
+ * Un unico hilo avanza la rueda y entrega al handler, por tick, las claves vencidas. {@link #schedule}
+ * y {@link #cancel} se pueden llamar desde cualquier hilo: las altas pasan por una cola y la rueda las
+ * ubica en su ranura al avanzar.
+ */
+public class TimingWheel<K> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TimingWheel.class);
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<ArrayDeque<Timer<K>>> slots;
+    private final Queue<Timer<K>> pending = new ConcurrentLinkedQueue<>();
+    private final Map<K, Set<Timer<K>>> byKey = new ConcurrentHashMap<>();
+    private final Consumer<List<K>> handler;
+    private final ScheduledExecutorService ticker;
+    private final long startNanos = System.nanoTime();
+    private long tick; // solo lo toca el hilo de la rueda
+
+    /**
+     * @param wheelSize se redondea a la potencia de 2 siguiente
+     * @param handler   recibe las claves vencidas en cada tick, en el hilo de la rueda
+     */
+    public TimingWheel(String name, Duration tick, int wheelSize, Consumer<List<K>> handler) {
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("El tick debe ser positivo");
+        }
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickNanos = tick.toNanos();
+        this.mask = size - 1;
+        this.slots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            slots.add(new ArrayDeque<>());
+        }
+        this.handler = handler;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::advance, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Programa {@code key} para dentro de {@code delay} (o el proximo tick si ya vencio). Una clave
+     * puede tener varios timers pendientes.
+     */
+    public void schedule(K key, Duration delay) {
+        long elapsed = System.nanoTime() - startNanos + Math.max(0, delay.toNanos());
+        long deadlineTick = Math.max(1, (elapsed + tickNanos - 1) / tickNanos);
+        Timer<K> timer = new Timer<>(key, deadlineTick);
+        byKey.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(timer);
+        pending.add(timer);
+    }
+
+    /**
+     * Cancela todos los timers pendientes de {@code key}.
+     */
+    public void cancel(K key) {
+        Set<Timer<K>> timers = byKey.remove(key);
+        if (timers != null) {
+            timers.forEach(timer -> timer.cancelled = true);
+        }
+    }
+
+    /**
+     * Cancela los timers de todas las claves que cumplen {@code filter}.
+     */
+    public void cancelIf(Predicate<K> filter) {
+        byKey.keySet().removeIf(key -> {
+            if (!filter.test(key)) return false;
+            Set<Timer<K>> timers = byKey.get(key);
+            if (timers != null) timers.forEach(timer -> timer.cancelled = true);
+            return true;
+        });
+    }
+
+    /**
+     * Claves con al menos un timer pendiente.
+     */
+    public int size() {
+        return byKey.size();
+    }
+
+    private void advance() {
+        try {
+            long target = (System.nanoTime() - startNanos) / tickNanos;
+            while (tick < target) {
+                tick++;
+                transferPending();
+                List<K> due = expire(slots.get((int) (tick & mask)));
+                if (!due.isEmpty()) {
+                    handler.accept(due);
+                }
+            }
+        } catch (RuntimeException ex) {
+            // Una excepcion cancelaria el scheduleAtFixedRate y detendria la rueda
+            log.warn("Fallo el handler de la rueda de timers", ex);
+        }
+    }
+
+    private void transferPending() {
+        Timer<K> timer;
+        while ((timer = pending.poll()) != null) {
+            if (timer.cancelled) continue;
+            long slotTick = Math.max(timer.deadlineTick, tick);
+            slots.get((int) (slotTick & mask)).add(timer);
+        }
+    }
+
+    private List<K> expire(ArrayDeque<Timer<K>> slot) {
+        List<K> due = new ArrayList<>();
+        for (Iterator<Timer<K>> it = slot.iterator(); it.hasNext(); ) {
+            Timer<K> timer = it.next();
+            if (timer.cancelled) {
+                it.remove();
+            } else if (timer.deadlineTick <= tick) {
+                it.remove();
+                byKey.computeIfPresent(timer.key, (key, timers) -> {
+                    timers.remove(timer);
+                    return timers.isEmpty() ? null : timers;
+                });
+                if (!due.contains(timer.key)) due.add(timer.key);
+            }
+        }
+        return due;
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+    }
+
+    private static final class Timer<K> {
+        private final K key;
+        private final long deadlineTick;
+        private volatile boolean cancelled;
+
+        private Timer(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package cl.pokemart.pokemart_backend.service.order;
+
+import cl.pokemart.pokemart_backend.config.InventoryProperties;
+import cl.pokemart.pokemart_backend.service.catalog.ProductsChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Modo LEDGER ({@code app.inventory.mode=ledger}): el stock disponible de cada SKU vive en un contador
+ * en memoria y los checkouts lo toman con compare-and-set, sin bloquear la fila del producto. Las lineas
+ * aceptadas quedan marcadas como pendientes en la misma transaccion de la orden y
+ * {@link PendingStockFlusher} las descuenta de {@code products.stock} por lotes cada
+ * {@code app.inventory.flush-interval}.
+ * <p>
+ * Un contador se carga al primer pedido como {@code stock - pendientes - en vuelo} y se descarta cuando
+ * el admin cambia el producto ({@link ProductsChangedEvent}). Las carreras con esa recarga solo pueden
+ * dejarlo por debajo del valor real hasta la siguiente recarga, nunca por encima. Los contadores no se
+ * comparten entre nodos: este modo supone una sola instancia de la API.
+ */
+@Primary
+@Component
+@ConditionalOnProperty(name = "app.inventory.mode", havingValue = "ledger")
+public class InventoryLedger implements StockAllocator, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryLedger.class);
+
+    private static final String LOAD_AVAILABLE = """
+            select p.stock - coalesce((select sum(i.cantidad) from items_orden i
+                                        where i.producto_id = p.id and i.stock_pendiente = :pending), 0)
+              from products p
+             where p.id = :id and p.active = :active
+            """;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final PendingStockFlusher flusher;
+    private final ConcurrentHashMap<Long, AtomicInteger> available = new ConcurrentHashMap<>();
+    // Tomado por transacciones aun abiertas, cuyas lineas todavia no se ven como pendientes en la BD
+    private final ConcurrentHashMap<Long, LongAdder> inFlight = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flushThread;
+
+    public InventoryLedger(NamedParameterJdbcTemplate jdbc,
+                           PendingStockFlusher flusher,
+                           InventoryProperties properties) {
+        this.jdbc = jdbc;
+        this.flusher = flusher;
+        this.flushThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-ledger-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toMillis();
+        flushThread.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Toma los SKUs por id ascendente; si uno no alcanza devuelve lo ya tomado y lo reporta. Lo tomado se
+     * libera si la transaccion de la orden se revierte.
+     */
+    @Override
+    public List<Long> allocate(Map<Long, Integer> quantities) {
+        Map<Long, Integer> taken = new LinkedHashMap<>();
+        for (Long id : quantities.keySet().stream().sorted().toList()) {
+            int quantity = quantities.get(id);
+            if (!take(id, quantity)) {
+                taken.forEach((takenId, takenQuantity) -> complete(takenId, takenQuantity, false));
+                return List.of(id);
+            }
+            taken.put(id, quantity);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            taken.forEach((id, quantity) -> complete(id, quantity, true));
+            return List.of();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                boolean committed = status == STATUS_COMMITTED;
+                taken.forEach((id, quantity) -> complete(id, quantity, committed));
+            }
+        });
+        return List.of();
+    }
+
+    @Override
+    public boolean deferred() {
+        return true;
+    }
+
+    /**
+     * Stock disponible segun el contador en memoria, o {@code null} si el SKU aun no se cargo.
+     */
+    public Integer available(Long productId) {
+        AtomicInteger counter = available.get(productId);
+        return counter != null ? counter.get() : null;
+    }
+
+    @EventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        if (event.productIds().isEmpty()) {
+            available.clear();
+        } else {
+            event.productIds().forEach(available::remove);
+        }
+    }
+
+    @Override
+    public void close() {
+        flushThread.shutdownNow();
+        flushQuietly();
+    }
+
+    private boolean take(Long id, int quantity) {
+        while (true) {
+            AtomicInteger counter = counter(id);
+            if (counter == null) return false;
+            if (!tryDecrement(counter, quantity)) {
+                if (available.get(id) == counter) return false;
+                continue;
+            }
+            LongAdder flight = inFlight.computeIfAbsent(id, key -> new LongAdder());
+            flight.add(quantity);
+            if (available.get(id) == counter) return true;
+            // El contador se descarto entre el CAS y el registro en vuelo: se deshace y se reintenta en el nuevo
+            flight.add(-quantity);
+            counter.addAndGet(quantity);
+        }
+    }
+
+    private void complete(Long id, int quantity, boolean committed) {
+        inFlight.get(id).add(-quantity);
+        if (!committed) {
+            AtomicInteger counter = available.get(id);
+            if (counter != null) counter.addAndGet(quantity);
+        }
+    }
+
+    private static boolean tryDecrement(AtomicInteger counter, int quantity) {
+        while (true) {
+            int current = counter.get();
+            if (current < quantity) return false;
+            if (counter.compareAndSet(current, current - quantity)) return true;
+        }
+    }
+
+    private AtomicInteger counter(Long id) {
+        AtomicInteger counter = available.get(id);
+        if (counter != null) return counter;
+        // En vuelo se lee antes que la BD: una orden que confirma entre ambas lecturas cuenta doble, nunca cero
+        LongAdder flight = inFlight.get(id);
+        int inFlightQuantity = flight != null ? flight.intValue() : 0;
+        List<Integer> rows = jdbc.query(LOAD_AVAILABLE, new MapSqlParameterSource()
+                        .addValue("id", id)
+                        .addValue("pending", Boolean.TRUE)
+                        .addValue("active", Boolean.TRUE),
+                (rs, i) -> rs.getInt(1));
+        if (rows.isEmpty()) return null;
+        int loaded = rows.get(0) - inFlightQuantity;
+        AtomicInteger created = new AtomicInteger(loaded);
+        AtomicInteger previous = available.putIfAbsent(id, created);
+        return previous != null ? previous : created;
+    }
+
+    private void flushQuietly() {
+        try {
+            flusher.flush();
+        } catch (RuntimeException ex) {
+            log.warn("No se pudo escribir el stock pendiente del ledger", ex);
+        }
+    }
+}
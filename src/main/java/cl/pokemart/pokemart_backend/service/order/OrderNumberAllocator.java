@@ -0,0 +1,76 @@
+package cl.pokemart.pokemart_backend.service.order;
+
+import cl.pokemart.pokemart_backend.model.common.PooledSequenceGenerator;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entrega el numero de orden antes del INSERT, para que la orden y sus items salgan en un solo flush sin
+ * un UPDATE posterior de {@code numero_orden}. Los numeros salen de la secuencia {@value #SEQUENCE} por
+ * bloques, con la misma semantica pooled que los ids ({@code nextval} = ultimo numero del bloque) y el
+ * mismo tamano ({@code pokemart.id.allocation-size}); cada instancia de la API toma sus propios bloques.
+ * <p>
+ * Los numeros antiguos eran {@code ORD-<id>}: si la secuencia no existe se crea una sola vez por delante del
+ * mayor id de {@code ordenes}, asi los nuevos no chocan con ellos. Una secuencia existente nunca se borra ni
+ * se reinicia. Los numeros no coinciden con el id de la orden ni son correlativos entre reinicios.
+ */
+@Component
+public class OrderNumberAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderNumberAllocator.class);
+
+    static final String SEQUENCE = "ordenes_numero_seq";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final int blockSize;
+
+    private SequenceSupport sequences;
+    private long next;
+    private long last;
+
+    public OrderNumberAllocator(EntityManagerFactory entityManagerFactory,
+                                JdbcTemplate jdbcTemplate,
+                                @Value("${spring.jpa.properties." + PooledSequenceGenerator.ALLOCATION_SIZE + ":50}") int blockSize) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    @PostConstruct
+    synchronized void init() {
+        sequences = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport();
+        try {
+            fetchBlock();
+        } catch (DataAccessException missing) {
+            Long maxId = jdbcTemplate.queryForObject("select max(id) from ordenes", Long.class);
+            int start = Math.toIntExact((maxId != null ? maxId : 0L) + blockSize);
+            for (String sql : sequences.getCreateSequenceStrings(SEQUENCE, start, blockSize)) jdbcTemplate.execute(sql);
+            log.info("Secuencia {} creada en {} (max id de ordenes = {})", SEQUENCE, start, maxId);
+            fetchBlock();
+        }
+    }
+
+    public synchronized String next() {
+        if (next > last) {
+            fetchBlock();
+        }
+        return String.format("ORD-%04d", next++);
+    }
+
+    private void fetchBlock() {
+        Long value = jdbcTemplate.queryForObject(sequences.getSequenceNextValString(SEQUENCE), Long.class);
+        // El bloque es (value - blockSize, value], como el optimizador pooled de los ids
+        last = value;
+        next = value - blockSize + 1;
+    }
+}
@@ -13,6 +13,7 @@ import cl.pokemart.pokemart_backend.repository.catalog.ProductOfferRepository;
 import cl.pokemart.pokemart_backend.repository.catalog.ProductRepository;
 import cl.pokemart.pokemart_backend.repository.order.OrderRepository;
 import cl.pokemart.pokemart_backend.repository.user.UserRepository;
+import cl.pokemart.pokemart_backend.service.catalog.ActiveOfferIndex;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -23,7 +24,11 @@ import org.springframework.web.server.ResponseStatusException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static java.math.BigDecimal.ZERO;
@@ -36,18 +41,33 @@ public class OrderService {
     private final ProductRepository productRepository;
     private final ProductOfferRepository productOfferRepository;
     private final UserRepository userRepository;
+    private final StockAllocator stockAllocator;
+    private final OrderNumberAllocator orderNumbers;
 
     public OrderService(OrderRepository orderRepository,
                         ProductRepository productRepository,
                         ProductOfferRepository productOfferRepository,
-                        UserRepository userRepository) {
+                        UserRepository userRepository,
+                        StockAllocator stockAllocator,
+                        OrderNumberAllocator orderNumbers) {
         this.orderRepository = orderRepository;
         this.productRepository = productRepository;
         this.productOfferRepository = productOfferRepository;
         this.userRepository = userRepository;
+        this.stockAllocator = stockAllocator;
+        this.orderNumbers = orderNumbers;
     }
 
     public OrderResponse createOrder(OrderRequest request, User currentUser) {
+        return createOrder(request, currentUser, Map.of());
+    }
+
+    /**
+     * Crea la orden usando el stock ya apartado en {@code reserved} ({@code productId -> cantidad}, tomado
+     * de una {@link StockReservationService reserva} del mismo pedido); solo los productos sin reserva se
+     * toman en este momento.
+     */
+    public OrderResponse createOrder(OrderRequest request, User currentUser, Map<Long, Integer> reserved) {
         if (request.getItems() == null || request.getItems().isEmpty()) {
             throw new IllegalArgumentException("La orden debe tener al menos un producto");
         }
@@ -73,8 +93,23 @@ public class OrderService {
                 .notas(valueOrDefault(request.getNotas(), "Sin notas registradas"))
                 .build();
 
-        List<OrderItem> items = new java.util.ArrayList<>(request.getItems().stream()
-                .map(itemReq -> toOrderItem(order, itemReq))
+        // Lineas repetidas se juntan en una sola; el stock se toma sin leer ni bloquear antes (UPDATE condicional
+        // o contador en memoria, segun app.inventory.mode) y recien despues se cargan los productos
+        Map<Long, Integer> quantities = mergeQuantities(request.getItems());
+        Map<Long, Integer> toAllocate = new LinkedHashMap<>(quantities);
+        toAllocate.keySet().removeAll(reserved.keySet());
+        List<Long> failed = toAllocate.isEmpty() ? List.of() : stockAllocator.allocate(toAllocate);
+        if (!failed.isEmpty()) {
+            throw stockError(failed.get(0), quantities.get(failed.get(0)));
+        }
+        Map<Long, Product> products = new HashMap<>();
+        productRepository.findAllById(quantities.keySet()).forEach(p -> products.put(p.getId(), p));
+        // Ofertas vigentes de los productos del carrito, leidas una vez para todas las lineas
+        ActiveOfferIndex offers = ActiveOfferIndex.of(
+                productOfferRepository.findActiveForProducts(LocalDateTime.now(), quantities.keySet()));
+        List<OrderItem> items = new ArrayList<>(quantities.entrySet().stream()
+                .map(line -> toOrderItem(order, products.get(line.getKey()), line.getValue(), offers,
+                        stockAllocator.deferred() && !reserved.containsKey(line.getKey())))
                 .toList());
 
         BigDecimal subtotal = items.stream()
@@ -91,10 +126,10 @@ public class OrderService {
         order.setDescuento(descuento);
         order.setImpuestos(impuestos);
         order.setTotal(total);
+        // Numero asignado antes del INSERT: la orden y sus items se escriben en un solo flush
+        order.setNumeroOrden(orderNumbers.next());
 
-        Order saved = orderRepository.save(order);
-        saved.setNumeroOrden(generateOrderNumber(saved.getId()));
-        Order persisted = orderRepository.save(saved);
+        Order persisted = orderRepository.save(order);
         return OrderResponse.from(persisted);
     }
 
@@ -134,18 +169,39 @@ public class OrderService {
         return OrderResponse.from(saved);
     }
 
-    private OrderItem toOrderItem(Order order, OrderItemRequest itemReq) {
-        Product product = productRepository.findActiveByIdForUpdate(itemReq.getProductoId())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Producto no disponible: " + itemReq.getProductoId()));
+    /**
+     * Cantidad pedida por producto, en el orden en que aparece cada producto por primera vez.
+     */
+    static Map<Long, Integer> mergeQuantities(List<OrderItemRequest> lines) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItemRequest line : lines) {
+            if (line.getProductoId() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Producto no disponible");
+            }
+            quantities.merge(line.getProductoId(), Math.max(1, line.getCantidad()), Integer::sum);
+        }
+        return quantities;
+    }
 
-        int quantity = Math.max(1, itemReq.getCantidad());
+    /**
+     * Traduce un UPDATE de stock que no afecto filas al mismo error que daba la validacion previa.
+     */
+    private ResponseStatusException stockError(Long productId, int quantity) {
+        Product product = productRepository.findById(productId)
+                .filter(p -> Boolean.TRUE.equals(p.getActive()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Producto no disponible: " + productId));
         validateStock(product, quantity);
-        BigDecimal unitPrice = resolvePrice(product);
-        BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
+        // El stock alcanzaba al releerlo: otra compra lo repuso entre medio, pero este descuento ya fallo
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Stock insuficiente para " + product.getName());
+    }
 
-        int stock = product.getStock() != null ? product.getStock() : 0;
-        int nextStock = stock - quantity;
-        product.setStock(nextStock);
+    /**
+     * Arma la linea de un producto cuyo stock ya fue tomado; {@code pending} si el descuento en
+     * {@code products.stock} queda para el flush del modo LEDGER.
+     */
+    private OrderItem toOrderItem(Order order, Product product, int quantity, ActiveOfferIndex offers, boolean pending) {
+        BigDecimal unitPrice = resolvePrice(product, offers);
+        BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
 
         return OrderItem.builder()
                 .orden(order)
@@ -154,11 +210,12 @@ public class OrderService {
                 .precioUnitario(unitPrice)
                 .cantidad(quantity)
                 .totalLinea(lineTotal)
+                .stockPendiente(pending ? Boolean.TRUE : null)
                 .build();
     }
 
-    private BigDecimal resolvePrice(Product product) {
-        Optional<ProductOffer> offerOpt = findActiveOffer(product);
+    private BigDecimal resolvePrice(Product product, ActiveOfferIndex offers) {
+        Optional<ProductOffer> offerOpt = offers.find(product.getId());
         BigDecimal base = product.getPrice() != null ? product.getPrice() : BigDecimal.ZERO;
         if (offerOpt.isEmpty()) return base;
         int pct = offerOpt.get().getDiscountPct() != null ? offerOpt.get().getDiscountPct() : 0;
@@ -178,14 +235,6 @@ public class OrderService {
         return discounted;
     }
 
-    private Optional<ProductOffer> findActiveOffer(Product product) {
-        var offers = productOfferRepository.findActive(LocalDateTime.now());
-        if (offers == null) return Optional.empty();
-        return offers.stream()
-                .filter(o -> o.getProduct() != null && o.getProduct().getId().equals(product.getId()) && !o.isExpired())
-                .findFirst();
-    }
-
     private void validateStock(Product product, int quantity) {
         if (product == null || !Boolean.TRUE.equals(product.getActive())) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Producto no disponible");
@@ -204,14 +253,6 @@ public class OrderService {
         return userRepository.findById(currentUser.getId()).orElse(null);
     }
 
-    private String generateOrderNumber(Long id) {
-        if (id == null) {
-            var last = orderRepository.findTopByOrderByIdDesc().map(Order::getId).orElse(1000L);
-            return String.format("ORD-%04d", last + 1);
-        }
-        return String.format("ORD-%04d", id);
-    }
-
     private String joinAddress(String calle, String depto) {
         if (depto == null || depto.isBlank()) return calle;
         return calle + ", " + depto;
@@ -221,6 +262,10 @@ public class OrderService {
         return (value != null && !value.isBlank()) ? value : fallback;
     }
 
+    /**
+     * Descuento total respecto del precio de lista, a partir de los precios unitarios ya resueltos con las
+     * ofertas de la orden (no vuelve a consultar ofertas).
+     */
     private BigDecimal calculateDiscount(List<OrderItem> items) {
         BigDecimal discount = ZERO;
         for (OrderItem item : items) {
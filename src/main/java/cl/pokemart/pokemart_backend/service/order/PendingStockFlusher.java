@@ -0,0 +1,106 @@
+package cl.pokemart.pokemart_backend.service.order;
+
+import cl.pokemart.pokemart_backend.service.catalog.StockChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Aplica a {@code products.stock} las lineas de orden marcadas con {@code stock_pendiente} (las que
+ * acepto el modo LEDGER). La orden y su marca se confirman juntas, asi que una caida entre el checkout
+ * y el flush no pierde descuentos: al iniciar se aplica lo que haya quedado pendiente, en cualquier modo.
+ */
+@Component
+public class PendingStockFlusher {
+
+    private static final Logger log = LoggerFactory.getLogger(PendingStockFlusher.class);
+
+    private static final String FIND_PENDING =
+            "select id, producto_id, cantidad from items_orden where stock_pendiente = :pending";
+    private static final String CLAIM =
+            "update items_orden set stock_pendiente = null where id = :id and stock_pendiente = :pending";
+    private static final String APPLY =
+            "update products set stock = stock - :quantity, updated_at = :now where id = :id";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate flushTx;
+    private final ApplicationEventPublisher publisher;
+
+    public PendingStockFlusher(NamedParameterJdbcTemplate jdbc,
+                               PlatformTransactionManager transactionManager,
+                               ApplicationEventPublisher publisher) {
+        this.jdbc = jdbc;
+        this.publisher = publisher;
+        this.flushTx = new TransactionTemplate(transactionManager);
+        this.flushTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        try {
+            int applied = flush();
+            if (applied > 0) {
+                log.warn("Aplicadas {} lineas de orden con stock pendiente de una ejecucion anterior", applied);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("No se pudo aplicar el stock pendiente", ex);
+        }
+    }
+
+    /**
+     * Descuenta en una transaccion propia el stock de las lineas pendientes y devuelve cuantas aplico.
+     * Cada linea se marca como aplicada antes de tocar el producto: si dos flush coinciden, el UPDATE
+     * condicional deja que solo uno la reclame. Tras el commit publica {@link StockChangedEvent}.
+     */
+    public synchronized int flush() {
+        Set<Long> touched = new TreeSet<>();
+        Integer applied = flushTx.execute(status -> {
+            List<long[]> pending = jdbc.query(FIND_PENDING, Map.of("pending", Boolean.TRUE),
+                    (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)});
+            if (pending.isEmpty()) return 0;
+
+            SqlParameterSource[] claims = pending.stream()
+                    .map(line -> new MapSqlParameterSource("id", line[0]).addValue("pending", Boolean.TRUE))
+                    .toArray(SqlParameterSource[]::new);
+            int[] counts = jdbc.batchUpdate(CLAIM, claims);
+            Map<Long, Long> quantities = new TreeMap<>();
+            int claimed = 0;
+            for (int i = 0; i < pending.size(); i++) {
+                if (counts[i] == 0) continue;
+                quantities.merge(pending.get(i)[1], pending.get(i)[2], Long::sum);
+                claimed++;
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<SqlParameterSource> updates = new ArrayList<>();
+            quantities.forEach((productId, quantity) -> updates.add(new MapSqlParameterSource()
+                    .addValue("id", productId)
+                    .addValue("quantity", quantity)
+                    .addValue("now", now)));
+            jdbc.batchUpdate(APPLY, updates.toArray(SqlParameterSource[]::new));
+            touched.addAll(quantities.keySet());
+            return claimed;
+        });
+        if (!touched.isEmpty()) {
+            publisher.publishEvent(new StockChangedEvent(Set.copyOf(touched)));
+        }
+        return applied != null ? applied : 0;
+    }
+}
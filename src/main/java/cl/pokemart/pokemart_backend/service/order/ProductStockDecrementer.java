@@ -0,0 +1,72 @@
+package cl.pokemart.pokemart_backend.service.order;
+
+import cl.pokemart.pokemart_backend.service.catalog.StockChangedEvent;
+import cl.pokemart.pokemart_backend.service.common.TransactionCallbacks;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Descuenta stock con UPDATEs condicionales en un JDBC batch, dentro de la transaccion del llamador.
+ * La condicion {@code stock >= :quantity} va en el mismo WHERE, asi que no hace falta leer ni bloquear
+ * la fila antes: cada UPDATE toma el lock solo mientras dura la transaccion y las filas se recorren
+ * por id ascendente, de modo que dos carros con los mismos productos nunca se bloquean en cruz.
+ * Es el {@link StockAllocator} del modo DATABASE. Tras el commit publica {@link StockChangedEvent} con los
+ * productos descontados.
+ */
+@Component
+public class ProductStockDecrementer implements StockAllocator {
+
+    private static final String DECREMENT = """
+            update products
+               set stock = stock - :quantity,
+                   updated_at = :now
+             where id = :id
+               and active = :active
+               and stock >= :quantity
+            """;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final ApplicationEventPublisher publisher;
+
+    public ProductStockDecrementer(NamedParameterJdbcTemplate jdbc, ApplicationEventPublisher publisher) {
+        this.jdbc = jdbc;
+        this.publisher = publisher;
+    }
+
+    @Override
+    public List<Long> allocate(Map<Long, Integer> quantities) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = quantities.keySet().stream().sorted().toList();
+        SqlParameterSource[] params = ids.stream()
+                .map(id -> new MapSqlParameterSource()
+                        .addValue("id", id)
+                        .addValue("quantity", quantities.get(id))
+                        .addValue("active", Boolean.TRUE)
+                        .addValue("now", now))
+                .toArray(SqlParameterSource[]::new);
+        int[] counts = jdbc.batchUpdate(DECREMENT, params);
+        List<Long> failed = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (counts[i] == 0) failed.add(ids.get(i));
+        }
+        if (failed.isEmpty()) {
+            Set<Long> taken = Set.copyOf(ids);
+            TransactionCallbacks.afterCommit(() -> publisher.publishEvent(new StockChangedEvent(taken)));
+        }
+        return failed;
+    }
+
+    @Override
+    public boolean deferred() {
+        return false;
+    }
+}
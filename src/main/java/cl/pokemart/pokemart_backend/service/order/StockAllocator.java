@@ -0,0 +1,24 @@
+package cl.pokemart.pokemart_backend.service.order;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Toma el stock de un checkout dentro de la transaccion de la orden. Si la transaccion se revierte,
+ * lo tomado se devuelve.
+ */
+public interface StockAllocator {
+
+    /**
+     * Descuenta {@code productId -> cantidad} (sin ids repetidos) y devuelve, en orden de id, los productos
+     * que no se pudieron descontar (inexistentes, inactivos o sin stock suficiente). Si alguno falla, el
+     * llamador debe abortar la transaccion.
+     */
+    List<Long> allocate(Map<Long, Integer> quantities);
+
+    /**
+     * {@code true} si {@code products.stock} se actualiza despues, por lotes: las lineas de la orden quedan
+     * marcadas como pendientes hasta que {@link PendingStockFlusher} las aplique.
+     */
+    boolean deferred();
+}
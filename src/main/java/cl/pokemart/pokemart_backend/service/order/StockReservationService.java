@@ -0,0 +1,220 @@
+package cl.pokemart.pokemart_backend.service.order;
+
+import cl.pokemart.pokemart_backend.config.InventoryProperties;
+import cl.pokemart.pokemart_backend.dto.order.OrderItemRequest;
+import cl.pokemart.pokemart_backend.model.catalog.Product;
+import cl.pokemart.pokemart_backend.model.order.StockReservation;
+import cl.pokemart.pokemart_backend.model.payment.PaymentIntent;
+import cl.pokemart.pokemart_backend.repository.catalog.ProductRepository;
+import cl.pokemart.pokemart_backend.repository.order.StockReservationRepository;
+import cl.pokemart.pokemart_backend.service.catalog.ProductsChangedEvent;
+import cl.pokemart.pokemart_backend.service.catalog.StockChangedEvent;
+import cl.pokemart.pokemart_backend.service.common.TimingWheel;
+import cl.pokemart.pokemart_backend.service.common.TransactionCallbacks;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Reservas de stock entre la preferencia de pago y su aprobacion. Reservar toma el stock con el mismo
+ * {@link StockAllocator} del checkout y lo deja descontado de {@code products.stock}; al aprobarse el pago
+ * la orden consume la reserva en vez de volver a tomar el stock. Los vencimientos los dispara una {@link TimingWheel} (una entrada por
+ * intencion de pago), no consultas periodicas: al vencer, la reserva se borra y el stock vuelve al producto.
+ * <p>
+ * Reclamar una reserva (consumirla o liberarla) borra sus filas con un DELETE por id: si la aprobacion y
+ * el vencimiento coinciden, solo uno de los dos la obtiene.
+ */
+@Service
+public class StockReservationService implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReservationService.class);
+
+    private static final String FIND_BY_INTENT =
+            "select id, product_id, quantity from stock_reservations where payment_intent_id = :intentId order by id";
+    private static final String CLAIM = "delete from stock_reservations where id = :id";
+    private static final String WITHDRAW =
+            "update products set stock = stock - :quantity, updated_at = :now where id = :id";
+    private static final String RESTORE =
+            "update products set stock = stock + :quantity, updated_at = :now where id = :id";
+
+    private final StockReservationRepository reservationRepository;
+    private final ProductRepository productRepository;
+    private final StockAllocator stockAllocator;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate releaseTx;
+    private final ApplicationEventPublisher publisher;
+    private final Duration ttl;
+    private final TimingWheel<Long> wheel;
+
+    public StockReservationService(StockReservationRepository reservationRepository,
+                                   ProductRepository productRepository,
+                                   StockAllocator stockAllocator,
+                                   NamedParameterJdbcTemplate jdbc,
+                                   PlatformTransactionManager transactionManager,
+                                   ApplicationEventPublisher publisher,
+                                   InventoryProperties properties,
+                                   MeterRegistry meterRegistry) {
+        this.reservationRepository = reservationRepository;
+        this.productRepository = productRepository;
+        this.stockAllocator = stockAllocator;
+        this.jdbc = jdbc;
+        this.releaseTx = new TransactionTemplate(transactionManager);
+        this.publisher = publisher;
+        this.ttl = properties.getReservationTtl();
+        this.wheel = new TimingWheel<>("reservation-wheel", properties.getReservationTick(),
+                properties.getReservationWheelSize(), this::onExpired);
+        Gauge.builder("inventory.reservations.scheduled", wheel, TimingWheel::size)
+                .description("Intenciones de pago con stock reservado")
+                .register(meterRegistry);
+    }
+
+    public Duration ttl() {
+        return ttl;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSchedule() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<Object[]> expiries = reservationRepository.findExpiryByIntent();
+            for (Object[] row : expiries) {
+                LocalDateTime expiresAt = (LocalDateTime) row[1];
+                wheel.schedule((Long) row[0], now.isBefore(expiresAt) ? Duration.between(now, expiresAt) : Duration.ZERO);
+            }
+            log.info("Programados los vencimientos de {} reservas de stock", expiries.size());
+        } catch (RuntimeException ex) {
+            log.warn("No se pudieron programar los vencimientos de reservas de stock", ex);
+        }
+    }
+
+    /**
+     * Aparta el stock de los items dentro de la transaccion del llamador; si algun producto no alcanza
+     * responde 400 y no aparta nada (el llamador revierte). En modo LEDGER el stock se toma del contador en
+     * memoria, que ya descuenta las lineas pendientes de flush, y se escribe de inmediato en
+     * {@code products.stock}: la reserva no pasa por el flush.
+     */
+    public void reserve(PaymentIntent intent, List<OrderItemRequest> items) {
+        Map<Long, Integer> quantities = OrderService.mergeQuantities(items);
+        List<Long> failed = stockAllocator.allocate(quantities);
+        if (!failed.isEmpty()) {
+            Long productId = failed.get(0);
+            String name = productRepository.findById(productId)
+                    .filter(p -> Boolean.TRUE.equals(p.getActive()))
+                    .map(Product::getName)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Producto no disponible: " + productId));
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Stock insuficiente para " + name);
+        }
+        boolean deferred = stockAllocator.deferred();
+        if (deferred) {
+            jdbc.batchUpdate(WITHDRAW, stockParams(quantities, LocalDateTime.now()));
+        }
+
+        LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+        reservationRepository.saveAll(quantities.entrySet().stream()
+                .map(line -> StockReservation.builder()
+                        .paymentIntent(intent)
+                        .product(productRepository.getReferenceById(line.getKey()))
+                        .quantity(line.getValue())
+                        .expiresAt(expiresAt)
+                        .build())
+                .toList());
+        Long intentId = intent.getId();
+        TransactionCallbacks.afterCommit(() -> {
+            wheel.schedule(intentId, ttl);
+            // En modo DATABASE el StockAllocator ya publico el cambio; en LEDGER la escritura es la de arriba
+            if (deferred) publisher.publishEvent(new StockChangedEvent(Set.copyOf(quantities.keySet())));
+        });
+    }
+
+    /**
+     * Reclama la reserva de la intencion dentro de la transaccion del llamador y devuelve lo apartado
+     * ({@code productId -> cantidad}); vacio si ya vencio o nunca existio.
+     */
+    public Map<Long, Integer> consume(Long intentId) {
+        Map<Long, Integer> claimed = claim(intentId);
+        if (!claimed.isEmpty()) {
+            TransactionCallbacks.afterCommit(() -> wheel.cancel(intentId));
+        }
+        return claimed;
+    }
+
+    /**
+     * Devuelve al producto el stock reservado por la intencion (pago rechazado o reserva vencida). Se une
+     * a la transaccion en curso o abre una propia.
+     */
+    public void release(Long intentId) {
+        Map<Long, Integer> claimed = releaseTx.execute(status -> {
+            Map<Long, Integer> released = claim(intentId);
+            jdbc.batchUpdate(RESTORE, stockParams(released, LocalDateTime.now()));
+            return released;
+        });
+        if (claimed != null && !claimed.isEmpty()) {
+            TransactionCallbacks.afterCommit(() -> {
+                wheel.cancel(intentId);
+                // El stock vuelve por fuera del ledger: sus contadores se recargan
+                publisher.publishEvent(new ProductsChangedEvent(Set.copyOf(claimed.keySet())));
+                publisher.publishEvent(new StockChangedEvent(Set.copyOf(claimed.keySet())));
+            });
+        }
+    }
+
+    @Override
+    public void close() {
+        wheel.close();
+    }
+
+    private Map<Long, Integer> claim(Long intentId) {
+        List<long[]> rows = jdbc.query(FIND_BY_INTENT, Map.of("intentId", intentId),
+                (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)});
+        Map<Long, Integer> claimed = new TreeMap<>();
+        if (rows.isEmpty()) return claimed;
+        List<SqlParameterSource> deletes = new ArrayList<>();
+        rows.forEach(row -> deletes.add(new MapSqlParameterSource("id", row[0])));
+        int[] counts = jdbc.batchUpdate(CLAIM, deletes.toArray(SqlParameterSource[]::new));
+        for (int i = 0; i < rows.size(); i++) {
+            if (counts[i] == 0) continue;
+            claimed.merge(rows.get(i)[1], (int) rows.get(i)[2], Integer::sum);
+        }
+        return claimed;
+    }
+
+    private static SqlParameterSource[] stockParams(Map<Long, Integer> quantities, LocalDateTime now) {
+        return quantities.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(line -> new MapSqlParameterSource()
+                        .addValue("id", line.getKey())
+                        .addValue("quantity", line.getValue())
+                        .addValue("now", now))
+                .toArray(SqlParameterSource[]::new);
+    }
+
+    private void onExpired(List<Long> intentIds) {
+        for (Long intentId : intentIds) {
+            try {
+                release(intentId);
+            } catch (RuntimeException ex) {
+                log.warn("No se pudo liberar la reserva de stock de la intencion {}", intentId, ex);
+            }
+        }
+    }
+}
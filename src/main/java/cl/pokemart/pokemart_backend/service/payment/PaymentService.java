@@ -15,6 +15,7 @@ import cl.pokemart.pokemart_backend.model.user.User;
 import cl.pokemart.pokemart_backend.repository.catalog.ProductRepository;
 import cl.pokemart.pokemart_backend.repository.payment.PaymentIntentRepository;
 import cl.pokemart.pokemart_backend.service.order.OrderService;
+import cl.pokemart.pokemart_backend.service.order.StockReservationService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mercadopago.MercadoPagoConfig;
@@ -24,15 +25,22 @@ import com.mercadopago.client.preference.PreferencePayerRequest;
 import com.mercadopago.client.preference.PreferenceRequest;
 import com.mercadopago.client.preference.PreferenceBackUrlsRequest;
 import com.mercadopago.client.payment.PaymentClient;
+import com.mercadopago.exceptions.MPApiException;
 import com.mercadopago.resources.payment.Payment;
+import com.mercadopago.resources.preference.Preference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 @Service
 public class PaymentService {
@@ -43,21 +51,31 @@ public class PaymentService {
     private final PaymentIntentRepository paymentIntentRepository;
     private final ProductRepository productRepository;
     private final OrderService orderService;
+    private final StockReservationService stockReservations;
     private final ObjectMapper objectMapper;
+    private final TransactionTemplate reservationTx;
 
     public PaymentService(MercadoPagoProperties properties,
                           PaymentIntentRepository paymentIntentRepository,
                           ProductRepository productRepository,
                           OrderService orderService,
-                          ObjectMapper objectMapper) {
+                          StockReservationService stockReservations,
+                          ObjectMapper objectMapper,
+                          PlatformTransactionManager transactionManager) {
         this.properties = properties;
         this.paymentIntentRepository = paymentIntentRepository;
         this.productRepository = productRepository;
         this.orderService = orderService;
+        this.stockReservations = stockReservations;
         this.objectMapper = objectMapper;
+        this.reservationTx = new TransactionTemplate(transactionManager);
+        this.reservationTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
-    @Transactional
+    /**
+     * Sin transaccion propia: la intencion y su reserva de stock se confirman en una transaccion corta
+     * antes de llamar a Mercado Pago, para no retener los locks de los productos durante esa llamada.
+     */
     public PaymentPreferenceResponse createPreference(PaymentPreferenceRequest request, User currentUser) {
         ensureAccessToken();
 
@@ -78,15 +96,19 @@ public class PaymentService {
         OrderRequest orderSnapshot = toOrderRequest(request);
         String payloadJson = serialize(orderSnapshot);
 
-        PaymentIntent intent = PaymentIntent.builder()
-                .status(PaymentIntentStatus.PENDIENTE)
-                .payloadJson(payloadJson)
-                .user(currentUser)
-                .build();
-        PaymentIntent saved = paymentIntentRepository.save(intent);
-
-        String externalReference = String.valueOf(saved.getId());
-        saved.setExternalReference(externalReference);
+        // El stock queda apartado hasta que el pago se apruebe o venza la reserva; la preferencia vence a la vez
+        PaymentIntent saved = reservationTx.execute(status -> {
+            PaymentIntent intent = paymentIntentRepository.save(PaymentIntent.builder()
+                    .status(PaymentIntentStatus.PENDIENTE)
+                    .payloadJson(payloadJson)
+                    .user(currentUser)
+                    .build());
+            intent.setExternalReference(String.valueOf(intent.getId()));
+            stockReservations.reserve(intent, orderSnapshot.getItems());
+            return paymentIntentRepository.save(intent);
+        });
+        String externalReference = saved.getExternalReference();
+        OffsetDateTime now = OffsetDateTime.now();
 
         var prefBuilder = PreferenceRequest.builder()
                 .items(items)
@@ -96,7 +118,10 @@ public class PaymentService {
                         .email(request.getCorreo())
                         .build())
                 .externalReference(externalReference)
-                .metadata(java.util.Map.of("intentId", externalReference));
+                .expires(true)
+                .expirationDateFrom(now)
+                .expirationDateTo(now.plus(stockReservations.ttl()))
+                .metadata(Map.of("intentId", externalReference));
 
         var backUrls = buildBackUrls();
         if (backUrls != null) {
@@ -110,7 +135,16 @@ public class PaymentService {
         PreferenceRequest prefReq = prefBuilder.build();
 
         PreferenceClient client = new PreferenceClient();
-        var preference = createPreferenceSafe(client, prefReq);
+        Preference preference;
+        try {
+            preference = createPreferenceSafe(client, prefReq);
+        } catch (RuntimeException ex) {
+            // Sin preferencia nadie podra pagar esta intencion: el stock vuelve de inmediato
+            stockReservations.release(saved.getId());
+            saved.setStatus(PaymentIntentStatus.FALLIDO);
+            paymentIntentRepository.save(saved);
+            throw ex;
+        }
 
         saved.setPreferenceId(preference.getId());
         paymentIntentRepository.save(saved);
@@ -149,6 +183,7 @@ public class PaymentService {
             intent.setStatus(PaymentIntentStatus.APROBADO);
         } else if ("rejected".equalsIgnoreCase(status) || "cancelled".equalsIgnoreCase(status)) {
             intent.setStatus(PaymentIntentStatus.FALLIDO);
+            stockReservations.release(intent.getId());
         }
 
         paymentIntentRepository.save(intent);
@@ -194,6 +229,7 @@ public class PaymentService {
 
         if ("rejected".equalsIgnoreCase(status) || "cancelled".equalsIgnoreCase(status)) {
             intent.setStatus(PaymentIntentStatus.FALLIDO);
+            stockReservations.release(intent.getId());
             paymentIntentRepository.save(intent);
             return PaymentConfirmationResponse.builder()
                     .status("rejected")
@@ -245,7 +281,8 @@ public class PaymentService {
             throw new IllegalStateException("No se pudo recuperar el payload de la preferencia");
         }
         OrderRequest orderRequest = toOrderRequest(paymentReq).withMetodoPago("mercado_pago");
-        return orderService.createOrder(orderRequest, intent.getUser());
+        // Si la reserva ya vencio el mapa viene vacio y la orden toma el stock como cualquier checkout
+        return orderService.createOrder(orderRequest, intent.getUser(), stockReservations.consume(intent.getId()));
     }
 
     private OrderRequest toOrderRequest(PaymentPreferenceRequest request) {
@@ -287,7 +324,7 @@ public class PaymentService {
     private Payment getPaymentSafe(PaymentClient client, Long paymentId) {
         try {
             return client.get(paymentId);
-        } catch (com.mercadopago.exceptions.MPApiException e) {
+        } catch (MPApiException e) {
             String details = e.getApiResponse() != null ? e.getApiResponse().getContent() : e.getMessage();
             int status = e.getApiResponse() != null ? e.getApiResponse().getStatusCode() : 0;
             log.error("Error MP al obtener pago {} (status {}): {}", paymentId, status, details);
@@ -297,10 +334,10 @@ public class PaymentService {
         }
     }
 
-    private com.mercadopago.resources.preference.Preference createPreferenceSafe(PreferenceClient client, PreferenceRequest request) {
+    private Preference createPreferenceSafe(PreferenceClient client, PreferenceRequest request) {
         try {
             return client.create(request);
-        } catch (com.mercadopago.exceptions.MPApiException e) {
+        } catch (MPApiException e) {
             String details = e.getApiResponse() != null ? e.getApiResponse().getContent() : e.getMessage();
             int status = e.getApiResponse() != null ? e.getApiResponse().getStatusCode() : 0;
             log.error("Error MP al crear preferencia (status {}): {}", status, details);
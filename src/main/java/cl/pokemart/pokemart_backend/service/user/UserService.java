@@ -1,11 +1,14 @@
 package cl.pokemart.pokemart_backend.service.user;
 
+import cl.pokemart.pokemart_backend.config.CacheConfig;
 import cl.pokemart.pokemart_backend.model.user.Role;
 import cl.pokemart.pokemart_backend.model.user.User;
 import cl.pokemart.pokemart_backend.model.user.UserProfile;
 import cl.pokemart.pokemart_backend.repository.order.OrderRepository;
 import cl.pokemart.pokemart_backend.repository.user.UserProfileRepository;
 import cl.pokemart.pokemart_backend.repository.user.UserRepository;
+import cl.pokemart.pokemart_backend.service.common.CacheRegion;
+import cl.pokemart.pokemart_backend.service.common.CacheRegions;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -18,7 +21,6 @@ import org.springframework.util.StringUtils;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @Transactional
@@ -28,17 +30,18 @@ public class UserService implements UserDetailsService {
     private final UserProfileRepository userProfileRepository;
     private final PasswordEncoder passwordEncoder;
     private final OrderRepository orderRepository;
-    private static final long CACHE_TTL_MS = 60_000; // 60s
-    private final ConcurrentHashMap<String, CacheEntry<List<User>>> adminUsersCache = new ConcurrentHashMap<>();
+    private final CacheRegion<List<User>> adminUsersCache;
 
     public UserService(UserRepository userRepository,
                        UserProfileRepository userProfileRepository,
                        PasswordEncoder passwordEncoder,
-                       OrderRepository orderRepository) {
+                       OrderRepository orderRepository,
+                       CacheRegions cacheRegions) {
         this.userRepository = userRepository;
         this.userProfileRepository = userProfileRepository;
         this.passwordEncoder = passwordEncoder;
         this.orderRepository = orderRepository;
+        this.adminUsersCache = cacheRegions.get(CacheConfig.ADMIN_USERS);
     }
 
     @Override
@@ -148,11 +151,7 @@ public class UserService implements UserDetailsService {
 
     @Transactional(readOnly = true)
     public java.util.List<User> findAll() {
-        List<User> cached = getAdminUsersCache();
-        if (cached != null) return cached;
-        List<User> users = userRepository.findAllWithProfile();
-        putAdminUsersCache(users);
-        return users;
+        return adminUsersCache.getOrLoad("all", userRepository::findAllWithProfile);
     }
 
     @Transactional(readOnly = true)
@@ -259,23 +258,7 @@ public class UserService implements UserDetailsService {
         });
     }
 
-    private List<User> getAdminUsersCache() {
-        CacheEntry<List<User>> entry = adminUsersCache.get("all");
-        if (entry == null) return null;
-        if (entry.expiresAt < System.currentTimeMillis()) {
-            adminUsersCache.remove("all");
-            return null;
-        }
-        return entry.value;
-    }
-
-    private void putAdminUsersCache(List<User> users) {
-        adminUsersCache.put("all", new CacheEntry<>(users, System.currentTimeMillis() + CACHE_TTL_MS));
-    }
-
     private String normalize(String value) {
         return value == null ? null : value.trim().toLowerCase();
     }
-
-    private record CacheEntry<T>(T value, long expiresAt) {}
 }
@@ -1,5 +1,9 @@
 package cl.pokemart.pokemart_backend.integration;
 
+import cl.pokemart.pokemart_backend.model.blog.BlogPost;
+import cl.pokemart.pokemart_backend.model.blog.BlogStatus;
+import cl.pokemart.pokemart_backend.repository.blog.BlogPostRepository;
+import cl.pokemart.pokemart_backend.service.blog.BlogService;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.hamcrest.Matchers;
@@ -7,11 +11,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -27,6 +33,12 @@ class BlogControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private BlogService blogService;
+
+    @Autowired
+    private BlogPostRepository blogPostRepository;
+
     @Test
     void shouldListPublicBlogs() throws Exception {
         mockMvc.perform(get("/api/v1/blogs")
@@ -52,4 +64,23 @@ class BlogControllerIntegrationTest {
                     .andExpect(jsonPath("$.slug").value(slug));
         }
     }
+
+    @Test
+    void shouldChangeEtagAfterBlogMutation() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/blogs")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        BlogPost post = blogPostRepository.findAll().get(0);
+        blogService.updateStatus(post.getId(), post.getStatus() != null ? post.getStatus() : BlogStatus.PUBLISHED);
+
+        String next = mockMvc.perform(get("/api/v1/blogs")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(next).isNotEqualTo(etag);
+    }
 }
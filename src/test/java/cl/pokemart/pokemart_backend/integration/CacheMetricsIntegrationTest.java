@@ -0,0 +1,58 @@
+package cl.pokemart.pokemart_backend.integration;
+
+import cl.pokemart.pokemart_backend.config.CacheConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CacheMetricsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldRecordCatalogCacheHits() throws Exception {
+        double before = hits();
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/v1/products").accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk());
+        }
+        assertThat(hits()).isGreaterThan(before);
+    }
+
+    @Test
+    void shouldExposeCatalogSnapshotMetrics() throws Exception {
+        mockMvc.perform(get("/api/v1/products").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        assertThat(meterRegistry.get("catalog.snapshot.generation").gauge().value()).isGreaterThan(0);
+        assertThat(meterRegistry.get("catalog.snapshot.products").gauge().value()).isGreaterThan(0);
+        assertThat(meterRegistry.get("catalog.snapshot.heap").gauge().value()).isGreaterThan(0);
+        assertThat(meterRegistry.get("catalog.snapshot.build").timer().count()).isGreaterThan(0);
+    }
+
+    private double hits() {
+        FunctionCounter counter = meterRegistry.find("cache.gets")
+                .tag("cache", CacheConfig.CATALOG_ENCODED)
+                .tag("result", "hit")
+                .functionCounter();
+        assertThat(counter).as("metricas de la region %s", CacheConfig.CATALOG_ENCODED).isNotNull();
+        return counter.count();
+    }
+}
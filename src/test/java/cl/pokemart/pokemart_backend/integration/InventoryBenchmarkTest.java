@@ -0,0 +1,122 @@
+package cl.pokemart.pokemart_backend.integration;
+
+import cl.pokemart.pokemart_backend.config.InventoryProperties;
+import cl.pokemart.pokemart_backend.dto.order.OrderItemRequest;
+import cl.pokemart.pokemart_backend.dto.order.OrderRequest;
+import cl.pokemart.pokemart_backend.repository.catalog.ProductOfferRepository;
+import cl.pokemart.pokemart_backend.repository.catalog.ProductRepository;
+import cl.pokemart.pokemart_backend.repository.order.OrderRepository;
+import cl.pokemart.pokemart_backend.repository.user.UserRepository;
+import cl.pokemart.pokemart_backend.service.order.InventoryLedger;
+import cl.pokemart.pokemart_backend.service.order.OrderNumberAllocator;
+import cl.pokemart.pokemart_backend.service.order.OrderService;
+import cl.pokemart.pokemart_backend.service.order.PendingStockFlusher;
+import cl.pokemart.pokemart_backend.service.order.ProductStockDecrementer;
+import cl.pokemart.pokemart_backend.service.order.StockAllocator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checkouts concurrentes del mismo SKU con el UPDATE por fila (modo DATABASE) y con el ledger en memoria.
+ * Fuera de {@code gradle test}; se ejecuta con {@code gradle benchmark} e imprime ordenes por segundo.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:benchdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+@ActiveProfiles("test")
+class InventoryBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int ORDERS_PER_THREAD = 200;
+    private static final int STOCK = 1_000_000;
+
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductOfferRepository productOfferRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PendingStockFlusher flusher;
+    @Autowired
+    private OrderNumberAllocator orderNumbers;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Test
+    void compareRowLockAndLedgerCheckout() throws Exception {
+        Long productId = productRepository.findAll().get(0).getId();
+        jdbcTemplate.update("update products set stock = ?, active = true where id = ?", STOCK, productId);
+
+        double rowLock = run("row-lock", new ProductStockDecrementer(namedJdbc, publisher), productId);
+
+        InventoryProperties properties = new InventoryProperties();
+        properties.setFlushInterval(Duration.ofMillis(100));
+        try (InventoryLedger ledger = new InventoryLedger(namedJdbc, flusher, properties)) {
+            double inMemory = run("ledger", ledger, productId);
+            System.out.printf("ledger / row-lock: %.2fx%n", inMemory / rowLock);
+        }
+
+        int orders = 2 * THREADS * ORDERS_PER_THREAD;
+        assertThat(jdbcTemplate.queryForObject("select stock from products where id = ?", Integer.class, productId))
+                .isEqualTo(STOCK - orders);
+    }
+
+    private double run(String name, StockAllocator allocator, Long productId) throws Exception {
+        OrderService orders = new OrderService(orderRepository, productRepository, productOfferRepository,
+                userRepository, allocator, orderNumbers);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        OrderRequest request = new OrderRequest("Ash", "Ketchum", "ash@pallet.cl", null, "Kanto", "Pueblo Paleta",
+                "Calle 1", null, null, "tarjeta", BigDecimal.ZERO, List.of(new OrderItemRequest(productId, 1)));
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    tx.executeWithoutResult(status -> orders.createOrder(request, null));
+                }
+                return null;
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        pool.shutdown();
+
+        double perSecond = THREADS * ORDERS_PER_THREAD / seconds;
+        System.out.printf("%-8s %d ordenes en %.2fs (%.0f ordenes/s)%n", name, THREADS * ORDERS_PER_THREAD, seconds, perSecond);
+        return perSecond;
+    }
+}
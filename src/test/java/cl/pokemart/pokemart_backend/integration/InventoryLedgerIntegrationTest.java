@@ -0,0 +1,192 @@
+package cl.pokemart.pokemart_backend.integration;
+
+import cl.pokemart.pokemart_backend.dto.catalog.ProductBulkUpdateItem;
+import cl.pokemart.pokemart_backend.dto.order.OrderItemRequest;
+import cl.pokemart.pokemart_backend.dto.order.OrderRequest;
+import cl.pokemart.pokemart_backend.model.catalog.Product;
+import cl.pokemart.pokemart_backend.model.payment.PaymentIntent;
+import cl.pokemart.pokemart_backend.model.payment.PaymentIntentStatus;
+import cl.pokemart.pokemart_backend.model.user.User;
+import cl.pokemart.pokemart_backend.repository.catalog.ProductRepository;
+import cl.pokemart.pokemart_backend.repository.payment.PaymentIntentRepository;
+import cl.pokemart.pokemart_backend.repository.user.UserRepository;
+import cl.pokemart.pokemart_backend.service.catalog.CatalogService;
+import cl.pokemart.pokemart_backend.service.order.InventoryLedger;
+import cl.pokemart.pokemart_backend.service.order.OrderService;
+import cl.pokemart.pokemart_backend.service.order.PendingStockFlusher;
+import cl.pokemart.pokemart_backend.service.order.StockReservationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checkout en modo LEDGER. Usa su propia BD H2 y un flush-interval largo para decidir en cada prueba
+ * cuando se escribe el stock.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledgerdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "app.inventory.mode=ledger",
+        "app.inventory.flush-interval=1h"
+})
+@ActiveProfiles("test")
+class InventoryLedgerIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private InventoryLedger ledger;
+
+    @Autowired
+    private PendingStockFlusher flusher;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StockReservationService reservations;
+
+    @Autowired
+    private PaymentIntentRepository paymentIntentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldAdmitFromMemoryAndWriteStockOnFlush() {
+        Product product = productWithStock(4);
+        int stock = product.getStock();
+
+        orderService.createOrder(order(product.getId(), 3), null);
+
+        assertThat(ledger.available(product.getId())).isEqualTo(stock - 3);
+        assertThat(stockInDb(product.getId())).isEqualTo(stock);
+        assertThat(pendingLines(product.getId())).isEqualTo(1);
+
+        assertThatThrownBy(() -> orderService.createOrder(order(product.getId(), stock - 2), null))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Stock insuficiente");
+        assertThat(ledger.available(product.getId())).isEqualTo(stock - 3);
+
+        assertThat(flusher.flush()).isEqualTo(1);
+        assertThat(stockInDb(product.getId())).isEqualTo(stock - 3);
+        assertThat(pendingLines(product.getId())).isZero();
+        assertThat(ledger.available(product.getId())).isEqualTo(stock - 3);
+    }
+
+    @Test
+    void shouldGiveBackTakenStockWhenAnotherLineFails() {
+        List<Product> products = productRepository.findAll().stream()
+                .filter(p -> Boolean.TRUE.equals(p.getActive()) && p.getStock() != null && p.getStock() >= 2)
+                .filter(p -> ledger.available(p.getId()) == null)
+                .sorted(Comparator.comparing(Product::getId))
+                .limit(2)
+                .toList();
+        Product first = products.get(0);
+        Product second = products.get(1);
+
+        assertThatThrownBy(() -> orderService.createOrder(new OrderRequest("Ash", "Ketchum", "ash@pallet.cl", null,
+                "Kanto", "Pueblo Paleta", "Calle 1", null, null, "tarjeta", BigDecimal.ZERO, List.of(
+                        new OrderItemRequest(second.getId(), second.getStock() + 1),
+                        new OrderItemRequest(first.getId(), 1))), null))
+                .isInstanceOf(ResponseStatusException.class);
+
+        // El primero (id menor) se tomo antes que fallara el segundo y se devolvio
+        assertThat(ledger.available(first.getId())).isEqualTo(first.getStock());
+        assertThat(ledger.available(second.getId())).isEqualTo(second.getStock());
+    }
+
+    @Test
+    void shouldReconcilePendingLinesAndReloadAfterAdminChange() {
+        Product product = productWithStock(2);
+        int stock = product.getStock();
+        orderService.createOrder(order(product.getId(), 1), null);
+        assertThat(stockInDb(product.getId())).isEqualTo(stock);
+
+        // Lo que haria el arranque tras una caida antes del flush
+        flusher.reconcile();
+        assertThat(stockInDb(product.getId())).isEqualTo(stock - 1);
+
+        User admin = userRepository.findByEmailIgnoreCase("admin@gmail.com").orElseThrow();
+        catalogService.bulkUpdateProducts(List.of(new ProductBulkUpdateItem(product.getId(), null, 50, null, null, null)), admin);
+        assertThat(ledger.available(product.getId())).isNull();
+
+        orderService.createOrder(order(product.getId(), 5), null);
+        assertThat(ledger.available(product.getId())).isEqualTo(45);
+    }
+
+    @Test
+    void reservationShouldCountLinesStillPendingFlush() {
+        Product product = productWithStock(3);
+        int stock = product.getStock();
+        orderService.createOrder(order(product.getId(), stock - 1), null);
+        // products.stock aun no refleja la orden: un UPDATE condicional sobre esa columna aceptaria 2
+        assertThat(stockInDb(product.getId())).isEqualTo(stock);
+
+        assertThatThrownBy(() -> reserve(product.getId(), 2))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Stock insuficiente");
+        reserve(product.getId(), 1);
+        assertThat(stockInDb(product.getId())).isEqualTo(stock - 1);
+
+        assertThatThrownBy(() -> orderService.createOrder(order(product.getId(), 1), null))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Stock insuficiente");
+        flusher.flush();
+        assertThat(stockInDb(product.getId())).isZero();
+    }
+
+    private PaymentIntent reserve(Long productId, int quantity) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            PaymentIntent intent = paymentIntentRepository.save(PaymentIntent.builder()
+                    .status(PaymentIntentStatus.PENDIENTE)
+                    .payloadJson("{}")
+                    .build());
+            reservations.reserve(intent, List.of(new OrderItemRequest(productId, quantity)));
+            return intent;
+        });
+    }
+
+    private Product productWithStock(int minimum) {
+        return productRepository.findAll().stream()
+                .filter(p -> Boolean.TRUE.equals(p.getActive()) && p.getStock() != null && p.getStock() >= minimum)
+                .filter(p -> ledger.available(p.getId()) == null)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private int stockInDb(Long productId) {
+        return jdbcTemplate.queryForObject("select stock from products where id = ?", Integer.class, productId);
+    }
+
+    private int pendingLines(Long productId) {
+        return jdbcTemplate.queryForObject(
+                "select count(*) from items_orden where producto_id = ? and stock_pendiente = true", Integer.class, productId);
+    }
+
+    private OrderRequest order(Long productId, int quantity) {
+        return new OrderRequest("Ash", "Ketchum", "ash@pallet.cl", null, "Kanto", "Pueblo Paleta",
+                "Calle 1", null, null, "tarjeta", BigDecimal.ZERO, List.of(new OrderItemRequest(productId, quantity)));
+    }
+}
@@ -1,5 +1,11 @@
 package cl.pokemart.pokemart_backend.integration;
 
+import cl.pokemart.pokemart_backend.dto.catalog.AdminOfferRequest;
+import cl.pokemart.pokemart_backend.dto.catalog.AdminOfferResponse;
+import cl.pokemart.pokemart_backend.dto.catalog.ProductResponse;
+import cl.pokemart.pokemart_backend.model.user.User;
+import cl.pokemart.pokemart_backend.repository.user.UserRepository;
+import cl.pokemart.pokemart_backend.service.catalog.CatalogService;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +15,11 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -21,6 +32,12 @@ class OfferControllerIntegrationTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private UserRepository userRepository;
+
     @Test
     void shouldListPublicOffers() throws Exception {
         mockMvc.perform(get("/api/v1/offers")
@@ -29,4 +46,38 @@ class OfferControllerIntegrationTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(Matchers.greaterThanOrEqualTo(0)));
     }
+
+    @Test
+    void scheduledOfferShouldStartAndEndOnItsBoundaries() throws Exception {
+        User admin = userRepository.findByEmailIgnoreCase("admin@gmail.com").orElseThrow();
+        Long productId = catalogService.listProducts(null).stream()
+                .filter(p -> p.getOffer() == null)
+                .findFirst()
+                .orElseThrow()
+                .getId();
+        LocalDateTime now = LocalDateTime.now();
+        AdminOfferResponse offer = catalogService.createOffer(new AdminOfferRequest(productId, 37,
+                now.plusSeconds(3).toString(), true, now.plusSeconds(1).toString()), admin);
+
+        assertThat(catalogService.getProduct(productId).getOffer()).isNull();
+        assertThat(awaitProduct(productId, p -> p.getOffer() != null)).isTrue();
+        assertThat(catalogService.getProduct(productId).getOffer().getDiscountPct()).isEqualTo(37);
+        mockMvc.perform(get("/api/v1/offers"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", Matchers.hasItem(productId.intValue())));
+
+        assertThat(awaitProduct(productId, p -> p.getOffer() == null)).isTrue();
+        assertThat(LocalDateTime.now()).isAfterOrEqualTo(now.plusSeconds(3));
+
+        catalogService.deleteOffer(offer.getId(), true, admin);
+    }
+
+    private boolean awaitProduct(Long productId, Predicate<ProductResponse> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(6).toNanos();
+        while (System.nanoTime() < deadline) {
+            if (condition.test(catalogService.getProduct(productId))) return true;
+            Thread.sleep(50);
+        }
+        return false;
+    }
 }
@@ -0,0 +1,96 @@
+package cl.pokemart.pokemart_backend.integration;
+
+import cl.pokemart.pokemart_backend.dto.order.OrderItemRequest;
+import cl.pokemart.pokemart_backend.dto.order.OrderRequest;
+import cl.pokemart.pokemart_backend.dto.order.OrderResponse;
+import cl.pokemart.pokemart_backend.model.catalog.Product;
+import cl.pokemart.pokemart_backend.repository.catalog.ProductRepository;
+import cl.pokemart.pokemart_backend.service.order.OrderService;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cuenta las sentencias que Hibernate prepara en createOrder. Usa su propia BD H2 porque registra un
+ * StatementInspector, lo que crea un contexto distinto al del resto de pruebas.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:batchingdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+@ActiveProfiles("test")
+class OrderBatchingIntegrationTest {
+
+    private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+    @TestConfiguration
+    static class StatementRecorderConfig {
+        @Bean
+        HibernatePropertiesCustomizer statementRecorder() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                List<String> recorded = RECORDED.get();
+                if (recorded != null) recorded.add(sql);
+                return sql;
+            });
+        }
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void createOrderWritesShouldNotGrowWithItemCount() {
+        List<Long> productIds = productRepository.findAll().stream()
+                .filter(p -> Boolean.TRUE.equals(p.getActive()) && p.getStock() != null && p.getStock() > 5)
+                .map(Product::getId)
+                .limit(8)
+                .toList();
+        assertThat(productIds).hasSize(8);
+
+        Map<String, Long> small = writesFor(productIds.subList(0, 2));
+        Map<String, Long> large = writesFor(productIds);
+
+        // Un INSERT batch para la orden y otro para sus items; sin UPDATE posterior del numero de orden
+        assertThat(small).isEqualTo(Map.of("insert", 2L));
+        assertThat(large).isEqualTo(small);
+    }
+
+    /**
+     * Sentencias de escritura preparadas por createOrder, agrupadas por tipo (insert/update/delete).
+     */
+    private Map<String, Long> writesFor(List<Long> productIds) {
+        List<OrderItemRequest> items = productIds.stream().map(id -> new OrderItemRequest(id, 1)).toList();
+        OrderRequest request = new OrderRequest("Ash", "Ketchum", "ash@pallet.cl", null, "Kanto", "Pueblo Paleta",
+                "Calle 1", null, null, "tarjeta", BigDecimal.ZERO, items);
+        List<String> recorded = new ArrayList<>();
+        RECORDED.set(recorded);
+        OrderResponse response;
+        try {
+            response = orderService.createOrder(request, null);
+        } finally {
+            RECORDED.remove();
+        }
+        assertThat(response.getItems()).hasSize(productIds.size());
+        assertThat(response.getNumeroOrden()).matches("ORD-\\d{4,}");
+        return recorded.stream()
+                .map(sql -> sql.trim().toLowerCase(Locale.ROOT).split("\\s+", 2)[0])
+                .filter(kind -> !kind.equals("select"))
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    }
+}
@@ -1,5 +1,6 @@
 package cl.pokemart.pokemart_backend.integration;
 
+import cl.pokemart.pokemart_backend.dto.order.OrderItemRequest;
 import cl.pokemart.pokemart_backend.dto.order.OrderRequest;
 import cl.pokemart.pokemart_backend.model.catalog.Product;
 import cl.pokemart.pokemart_backend.repository.catalog.ProductRepository;
@@ -68,4 +69,36 @@ class OrderControllerIntegrationTest {
                 .andExpect(jsonPath("$.id").exists())
                 .andExpect(jsonPath("$.total").isNumber());
     }
+
+    @Test
+    void shouldTakeStockAtomicallyAndRejectWhenInsufficient() throws Exception {
+        Product product = productRepository.findAll().stream()
+                .filter(p -> Boolean.TRUE.equals(p.getActive()) && p.getStock() != null && p.getStock() >= 3)
+                .findFirst()
+                .orElseThrow();
+        int stock = product.getStock();
+
+        mockMvc.perform(post("/api/v1/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderPayload(List.of(
+                                new OrderItemRequest(product.getId(), 1),
+                                new OrderItemRequest(product.getId(), 2)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].cantidad").value(3));
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(stock - 3);
+
+        mockMvc.perform(post("/api/v1/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderPayload(List.of(
+                                new OrderItemRequest(firstProductId, 1),
+                                new OrderItemRequest(product.getId(), stock)))))
+                .andExpect(status().isBadRequest());
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(stock - 3);
+    }
+
+    private String orderPayload(List<OrderItemRequest> items) throws Exception {
+        return objectMapper.writeValueAsString(new OrderRequest("Tester", "Invitado", "tester@example.com",
+                "+56999999999", "Kanto", "Ciudad Central", "Calle 1", null, null, "credit", BigDecimal.ZERO, items));
+    }
 }
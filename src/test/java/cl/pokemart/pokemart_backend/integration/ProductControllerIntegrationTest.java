@@ -1,15 +1,45 @@
 package cl.pokemart.pokemart_backend.integration;
 
+import cl.pokemart.pokemart_backend.dto.catalog.ProductBulkUpdateItem;
+import cl.pokemart.pokemart_backend.dto.catalog.ProductBulkUpdateResponse;
+import cl.pokemart.pokemart_backend.dto.catalog.ProductImportResponse;
+import cl.pokemart.pokemart_backend.dto.catalog.ProductRequest;
+import cl.pokemart.pokemart_backend.model.user.User;
+import cl.pokemart.pokemart_backend.repository.user.UserRepository;
+import cl.pokemart.pokemart_backend.service.catalog.CatalogService;
+import cl.pokemart.pokemart_backend.service.catalog.CatalogSnapshotStore;
+import cl.pokemart.pokemart_backend.service.catalog.ProductImporter;
+import cl.pokemart.pokemart_backend.service.catalog.StockChangedEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -21,6 +51,24 @@ class ProductControllerIntegrationTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    private CatalogSnapshotStore snapshotStore;
+
     @Test
     void shouldListActiveProducts() throws Exception {
         mockMvc.perform(get("/api/v1/products")
@@ -30,4 +78,280 @@ class ProductControllerIntegrationTest {
                 .andExpect(jsonPath("$.length()").value(Matchers.greaterThan(0)))
                 .andExpect(jsonPath("$[0].id").exists());
     }
+
+    @Test
+    void shouldFilterByCategoryAndIncludeStockBase() throws Exception {
+        mockMvc.perform(get("/api/v1/products")
+                        .param("category", "ropa")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(Matchers.greaterThan(0)))
+                .andExpect(jsonPath("$[*].categoria", Matchers.everyItem(Matchers.equalToIgnoringCase("ropa"))))
+                .andExpect(jsonPath("$[0].stockBase").isNumber());
+    }
+
+    @Test
+    void shouldAnswerNotModifiedWhenEtagMatches() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/v1/products")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, Matchers.containsString("s-maxage")))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/products")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/v1/products")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"otra-version\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray());
+    }
+
+    @Test
+    void stockWriteShouldRefreshProductAndEtag() throws Exception {
+        Long productId = jdbcTemplate.queryForObject("select min(id) from products where active = true", Long.class);
+        String etag = mockMvc.perform(get("/api/v1/products/{id}", productId).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Integer stock = jdbcTemplate.queryForObject("select stock from products where id = ?", Integer.class, productId);
+
+        jdbcTemplate.update("update products set stock = stock - 1 where id = ?", productId);
+        publisher.publishEvent(new StockChangedEvent(Set.of(productId)));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        MvcResult refreshed;
+        do {
+            refreshed = mockMvc.perform(get("/api/v1/products/{id}", productId)
+                            .header(HttpHeaders.IF_NONE_MATCH, etag)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andReturn();
+            if (refreshed.getResponse().getStatus() == 200) break;
+            Thread.sleep(50);
+        } while (System.currentTimeMillis() < deadline);
+        try {
+            assertThat(refreshed.getResponse().getStatus()).isEqualTo(200);
+            assertThat(objectMapper.readTree(refreshed.getResponse().getContentAsString()).get("stock").asInt())
+                    .isEqualTo(stock - 1);
+        } finally {
+            jdbcTemplate.update("update products set stock = stock + 1 where id = ?", productId);
+            publisher.publishEvent(new StockChangedEvent(Set.of(productId)));
+        }
+    }
+
+    @Test
+    void periodicRebuildShouldChangeEtag() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/products").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Reconstruccion por max-age: recoge escrituras de otras instancias sin pasar por CatalogService
+        snapshotStore.refresh();
+
+        mockMvc.perform(get("/api/v1/products")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, Matchers.not(etag)));
+    }
+
+    @Test
+    void shouldServeGzipVariantWithItsOwnEtag() throws Exception {
+        MvcResult plain = mockMvc.perform(get("/api/v1/products")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn();
+        MvcResult gzip = mockMvc.perform(get("/api/v1/products")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, Matchers.hasItem(Matchers.containsString(HttpHeaders.ACCEPT_ENCODING))))
+                .andReturn();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.getResponse().getContentAsByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+                    .isEqualTo(plain.getResponse().getContentAsString(StandardCharsets.UTF_8));
+        }
+        assertThat(gzip.getResponse().getHeader(HttpHeaders.ETAG))
+                .isNotEqualTo(plain.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void shouldWalkAllPagesInStableOrder() throws Exception {
+        JsonNode all = objectMapper.readTree(mockMvc.perform(get("/api/v1/products"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        List<JsonNode> expected = new ArrayList<>();
+        all.forEach(expected::add);
+        expected.sort(Comparator.<JsonNode, BigDecimal>comparing(n -> n.get("precio").decimalValue())
+                .thenComparing(n -> n.get("id").asLong()));
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/api/v1/products/page").param("sort", "price").param("size", "3");
+            if (cursor != null) request.param("cursor", cursor);
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items.length()").value(Matchers.lessThanOrEqualTo(3)))
+                    .andReturn().getResponse().getContentAsString());
+            page.get("items").forEach(item -> seen.add(item.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+
+        assertThat(seen).containsExactlyElementsOf(expected.stream().map(n -> n.get("id").asLong()).toList());
+    }
+
+    @Test
+    void shouldPageByDiscountAndRejectForeignCursor() throws Exception {
+        JsonNode first = objectMapper.readTree(mockMvc.perform(get("/api/v1/products/page")
+                        .param("sort", "discount")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sort").value("discount"))
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andReturn().getResponse().getContentAsString());
+
+        mockMvc.perform(get("/api/v1/products/page")
+                        .param("sort", "name")
+                        .param("cursor", first.get("nextCursor").asText()))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/products/page").param("sort", "popularidad"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldSearchIgnoringCaseAndAccents() throws Exception {
+        JsonNode first = objectMapper.readTree(mockMvc.perform(get("/api/v1/products"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get(0);
+        String word = first.get("nombre").asText().split("\\s+")[0].toUpperCase();
+
+        mockMvc.perform(get("/api/v1/products/search").param("q", word))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", Matchers.hasItem(first.get("id").intValue())));
+        mockMvc.perform(get("/api/v1/products/search").param("q", "zzqxw"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void shouldFilterByFacets() throws Exception {
+        mockMvc.perform(get("/api/v1/products/facets")
+                        .param("category", "ropa")
+                        .param("inStock", "true")
+                        .param("minPrice", "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(Matchers.greaterThan(0)))
+                .andExpect(jsonPath("$.items[*].categoria", Matchers.everyItem(Matchers.equalToIgnoringCase("ropa"))))
+                .andExpect(jsonPath("$.items[*].stock", Matchers.everyItem(Matchers.greaterThan(0))))
+                .andExpect(jsonPath("$.categorias.ropa").value(Matchers.greaterThan(0)));
+    }
+
+    @Test
+    void shouldImportProductsFromCsvAndNdjson() throws Exception {
+        User admin = userRepository.findByEmailIgnoreCase("admin@gmail.com").orElseThrow();
+        String csv = """
+                Nombre,precio,stock,categoriaSlug,descripcion,proveedor
+                Baya Zreza Importada,150,10,Importados QA,"Cura paralisis, rapido
+                y sin efectos",SUP-1
+                Baya Meloc Importada,abc,5,importados qa,,SUP-2
+                ,100,5,importados qa,,SUP-3
+                Baya Zreza Importada,175,12,importados qa,Precio actualizado,SUP-1
+
+                Baya Atania Importada,90,0,importados qa,,SUP-4
+                """;
+        ProductImportResponse first = catalogService.importProducts(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ProductImporter.Format.CSV, admin);
+
+        assertThat(first.getProcesadas()).isEqualTo(5);
+        assertThat(first.getCreadas()).isEqualTo(2);
+        assertThat(first.getActualizadas()).isEqualTo(1);
+        assertThat(first.getFallidas()).isEqualTo(2);
+        assertThat(first.getErrores()).extracting(ProductImportResponse.RowError::getFila).containsExactly(2L, 3L);
+        assertThat(first.getErrores().get(0).getMensaje()).contains("precio");
+        assertThat(first.getErrores().get(1).getMensaje()).contains("nombre");
+
+        JsonNode imported = objectMapper.readTree(mockMvc.perform(get("/api/v1/products").param("category", "importados-qa"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(imported).hasSize(2);
+        JsonNode zreza = imported.findParents("nombre").stream()
+                .filter(node -> node.get("nombre").asText().equals("Baya Zreza Importada"))
+                .findFirst().orElseThrow();
+        assertThat(zreza.get("precio").decimalValue()).isEqualByComparingTo("175");
+        assertThat(zreza.get("stockBase").intValue()).isEqualTo(10);
+        mockMvc.perform(get("/api/v1/products/search").param("q", "atania"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].nombre", Matchers.hasItem("Baya Atania Importada")));
+
+        String ndjson = """
+                {"nombre":"Baya Atania Importada","precio":95,"stock":3,"stockBase":20,"categoriaSlug":"importados-qa"}
+                {"nombre":"Baya Meloc Importada","precio":80,"stock":7,"categoriaSlug":"importados-qa"}
+                no es json
+                """;
+        ProductImportResponse second = catalogService.importProducts(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), ProductImporter.Format.NDJSON, admin);
+
+        assertThat(second.getCreadas()).isEqualTo(1);
+        assertThat(second.getActualizadas()).isEqualTo(1);
+        assertThat(second.getErrores()).extracting(ProductImportResponse.RowError::getFila).containsExactly(3L);
+        mockMvc.perform(get("/api/v1/products").param("category", "importados-qa"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[?(@.nombre == 'Baya Atania Importada')].stockBase").value(Matchers.contains(20)));
+    }
+
+    @Test
+    void importShouldRequireAdmin() throws Exception {
+        mockMvc.perform(post("/api/v1/products/import")
+                        .contentType("text/csv")
+                        .content("nombre,precio,stock,categoriaSlug\nX,1,1,ropa\n"))
+                .andExpect(status().is4xxClientError());
+    }
+
+    @Test
+    void shouldBulkUpdatePriceAndStockWithOptimisticChecks() throws Exception {
+        User admin = userRepository.findByEmailIgnoreCase("admin@gmail.com").orElseThrow();
+        Long repriced = catalogService.createProduct(new ProductRequest("Poción Masiva A", null,
+                new BigDecimal("300"), 5, null, null, "bulk-qa"), admin).getId();
+        Long guarded = catalogService.createProduct(new ProductRequest("Poción Masiva B", null,
+                new BigDecimal("400"), 5, null, null, "bulk-qa"), admin).getId();
+
+        ProductBulkUpdateResponse result = catalogService.bulkUpdateProducts(List.of(
+                new ProductBulkUpdateItem(repriced, new BigDecimal("500"), 9, 30, new BigDecimal("300"), null),
+                new ProductBulkUpdateItem(guarded, new BigDecimal("700"), null, null, new BigDecimal("350"), null),
+                new ProductBulkUpdateItem(999_999L, null, 1, null, null, null),
+                new ProductBulkUpdateItem(repriced, null, 1, null, null, null),
+                new ProductBulkUpdateItem(guarded, null, null, null, null, 5)), admin);
+
+        assertThat(result.getAplicadas()).isEqualTo(1);
+        assertThat(result.getRechazadas()).isEqualTo(4);
+        assertThat(result.getRechazos()).extracting(ProductBulkUpdateResponse.Rejected::getIndice)
+                .containsExactly(1, 2, 3, 4);
+        assertThat(result.getRechazos()).extracting(ProductBulkUpdateResponse.Rejected::getMotivo)
+                .containsExactly("El precio o stock cambió desde la lectura", "Producto no encontrado",
+                        "ID repetido en la solicitud", "Sin cambios: enviar precio, stock o stockBase");
+
+        mockMvc.perform(get("/api/v1/products/{id}", repriced))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.precio").value(500))
+                .andExpect(jsonPath("$.stock").value(9))
+                .andExpect(jsonPath("$.stockBase").value(30));
+        mockMvc.perform(get("/api/v1/products/{id}", guarded))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.precio").value(400));
+        mockMvc.perform(patch("/api/v1/products/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":1,\"stock\":1}]"))
+                .andExpect(status().is4xxClientError());
+    }
 }
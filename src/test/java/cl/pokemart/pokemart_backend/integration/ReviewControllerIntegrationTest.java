@@ -1,22 +1,36 @@
 package cl.pokemart.pokemart_backend.integration;
 
+import cl.pokemart.pokemart_backend.config.ReviewStatsReconciler;
+import cl.pokemart.pokemart_backend.dto.catalog.ReviewRequest;
+import cl.pokemart.pokemart_backend.dto.catalog.ReviewResponse;
 import cl.pokemart.pokemart_backend.model.catalog.Product;
+import cl.pokemart.pokemart_backend.model.user.User;
 import cl.pokemart.pokemart_backend.repository.catalog.ProductRepository;
+import cl.pokemart.pokemart_backend.repository.catalog.ReviewStatsRow;
+import cl.pokemart.pokemart_backend.repository.user.UserRepository;
+import cl.pokemart.pokemart_backend.service.catalog.CatalogService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -31,6 +45,21 @@ class ReviewControllerIntegrationTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private ReviewStatsReconciler reviewStatsReconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private Long productId;
 
     @BeforeEach
@@ -49,6 +78,88 @@ class ReviewControllerIntegrationTest {
                 .andExpect(jsonPath("$.length()").value(Matchers.greaterThanOrEqualTo(0)));
     }
 
+    @Test
+    void shouldWalkReviewPagesNewestFirst() throws Exception {
+        Long reviewed = productRepository.findAll().stream()
+                .filter(p -> Boolean.TRUE.equals(p.getActive()))
+                .max(Comparator.comparing(Product::getReviewCount))
+                .orElseThrow()
+                .getId();
+        JsonNode all = objectMapper.readTree(mockMvc.perform(get("/api/v1/products/{id}/reviews", reviewed))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(all.size()).isGreaterThan(2);
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/api/v1/products/{id}/reviews/page", reviewed).param("size", "2");
+            if (cursor != null) request.param("cursor", cursor);
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items.length()").value(Matchers.lessThanOrEqualTo(2)))
+                    .andReturn().getResponse().getContentAsString());
+            page.get("items").forEach(item -> seen.add(item.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+
+        List<Long> expected = new ArrayList<>();
+        all.forEach(item -> expected.add(item.get("id").asLong()));
+        assertThat(seen).containsExactlyElementsOf(expected);
+
+        mockMvc.perform(get("/api/v1/products/{id}/reviews/page", reviewed).param("cursor", "no-es-un-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void reviewPageShouldRevalidateWithEtagUntilReviewsChange() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/products/{id}/reviews/page", productId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/v1/products/{id}/reviews/page", productId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        User admin = userRepository.findByEmailIgnoreCase("admin@gmail.com").orElseThrow();
+        ReviewResponse added = catalogService.addReview(productId, review(5), admin);
+        mockMvc.perform(get("/api/v1/products/{id}/reviews/page", productId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(added.getId()));
+        catalogService.deleteReview(added.getId());
+    }
+
+    @Test
+    void shouldServeStarHistogramMaintainedOnReviewWrites() throws Exception {
+        User admin = userRepository.findByEmailIgnoreCase("admin@gmail.com").orElseThrow();
+        JsonNode before = objectMapper.readTree(mockMvc.perform(get("/api/v1/products/{id}/reviews/summary", productId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        long fours = before.get("estrellas").get("4").asLong();
+
+        ReviewResponse added = catalogService.addReview(productId, review(4), admin);
+        mockMvc.perform(get("/api/v1/products/{id}/reviews/summary", productId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(before.get("total").asLong() + 1))
+                .andExpect(jsonPath("$.estrellas.4").value(fours + 1));
+
+        Long other = productRepository.findAll().stream()
+                .map(Product::getId)
+                .filter(id -> !id.equals(productId))
+                .findFirst()
+                .orElseThrow();
+        mockMvc.perform(get("/api/v1/products/reviews/summary").param("ids", other + "," + productId + "," + Long.MAX_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].productoId").value(other))
+                .andExpect(jsonPath("$[1].productoId").value(productId))
+                .andExpect(jsonPath("$[1].estrellas.4").value(fours + 1));
+
+        catalogService.deleteReview(added.getId());
+        mockMvc.perform(get("/api/v1/products/{id}/reviews/summary", productId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estrellas.4").value(fours));
+    }
+
     @Test
     void shouldRejectReviewWithoutAuth() throws Exception {
         String payload = """
@@ -65,4 +176,59 @@ class ReviewControllerIntegrationTest {
                     org.assertj.core.api.Assertions.assertThat(s).isIn(401, 403);
                 });
     }
+
+    @Test
+    void shouldUpdateReviewStatsIncrementallyAndReconcileDrift() {
+        User admin = userRepository.findByEmailIgnoreCase("admin@gmail.com").orElseThrow();
+        ReviewStatsRow before = productRepository.findReviewStats(productId).orElseThrow();
+
+        ReviewResponse five = catalogService.addReview(productId, review(5), admin);
+        ReviewResponse one = catalogService.addReview(productId, review(1), admin);
+
+        ReviewStatsRow after = productRepository.findReviewStats(productId).orElseThrow();
+        assertThat(after.reviewCount()).isEqualTo(before.reviewCount() + 2);
+        assertThat(after.ratingSum()).isEqualTo(before.ratingSum() + 6);
+        assertThat(after.reviewAvg()).isCloseTo((double) after.ratingSum() / after.reviewCount(),
+                org.assertj.core.data.Offset.offset(1e-9));
+
+        jdbcTemplate.update("update products set rating_sum = 0, review_count = 0 where id = ?", productId);
+        assertThat(catalogService.reconcileReviewStats(admin)).isEqualTo(1);
+        ReviewStatsRow reconciled = productRepository.findReviewStats(productId).orElseThrow();
+        assertThat(reconciled.reviewCount()).isEqualTo(after.reviewCount());
+        assertThat(reconciled.ratingSum()).isEqualTo(after.ratingSum());
+        assertThat(reconciled.reviewAvg()).isCloseTo(after.reviewAvg(), org.assertj.core.data.Offset.offset(1e-9));
+
+        catalogService.deleteReview(five.getId());
+        catalogService.deleteReview(one.getId());
+        ReviewStatsRow restored = productRepository.findReviewStats(productId).orElseThrow();
+        assertThat(restored.reviewCount()).isEqualTo(before.reviewCount());
+        assertThat(restored.ratingSum()).isEqualTo(before.ratingSum());
+        assertThat(catalogService.getProduct(productId).getReviewCount()).isEqualTo(before.reviewCount().intValue());
+    }
+
+    @Test
+    void startupReconcileShouldBackfillCountersAddedAsZero() {
+        User admin = userRepository.findByEmailIgnoreCase("admin@gmail.com").orElseThrow();
+        ReviewResponse added = catalogService.addReview(productId, review(4), admin);
+        ReviewStatsRow expected = productRepository.findReviewStats(productId).orElseThrow();
+
+        // Lo que deja ddl-auto=update al agregar las columnas en una BD con reseñas
+        jdbcTemplate.update("update products set rating_sum = 0, rating_count_4 = 0 where id = ?", productId);
+        reviewStatsReconciler.reconcile();
+
+        ReviewStatsRow backfilled = productRepository.findReviewStats(productId).orElseThrow();
+        assertThat(backfilled.ratingSum()).isEqualTo(expected.ratingSum());
+        assertThat(backfilled.ratingCount4()).isEqualTo(expected.ratingCount4());
+
+        // Un promedio desviado con los contadores al dia tambien se corrige
+        jdbcTemplate.update("update products set review_avg = 0 where id = ?", productId);
+        reviewStatsReconciler.reconcile();
+        assertThat(productRepository.findReviewStats(productId).orElseThrow().reviewAvg())
+                .isEqualTo(expected.reviewAvg());
+        catalogService.deleteReview(added.getId());
+    }
+
+    private ReviewRequest review(int rating) {
+        return new ReviewRequest(rating, "Prueba de contadores");
+    }
 }
@@ -0,0 +1,83 @@
+package cl.pokemart.pokemart_backend.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Revisa con EXPLAIN de H2 que las consultas frecuentes de los repositorios usen un indice
+ * y no recorran la tabla completa.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SchemaIndexIntegrationTest {
+
+    private static final Map<String, String> HOT_QUERIES = new LinkedHashMap<>();
+
+    static {
+        HOT_QUERIES.put("productos por categoria",
+                "select p.id from products p where p.category_id = 1 and p.active = true");
+        HOT_QUERIES.put("categoria por slug",
+                "select c.id from categories c where c.slug_ci = upper('ropa')");
+        HOT_QUERIES.put("ofertas vigentes",
+                "select o.id from product_offers o where o.active = true and (o.ends_at is null or o.ends_at > current_timestamp)");
+        HOT_QUERIES.put("ofertas de un producto",
+                "select o.id from product_offers o where o.product_id = 1");
+        HOT_QUERIES.put("ofertas de un carrito",
+                "select o.id from product_offers o where o.product_id in (1, 2, 3) and o.active = true");
+        HOT_QUERIES.put("reseñas de un producto",
+                "select r.id from product_reviews r where r.product_id = 1 order by r.created_at desc, r.id desc");
+        HOT_QUERIES.put("stock base de un producto",
+                "select s.stock_base from product_stock_base s where s.product_id = 1");
+        HOT_QUERIES.put("ordenes por fecha",
+                "select o.id from ordenes o order by o.creado_en desc");
+        HOT_QUERIES.put("ordenes de un cliente",
+                "select o.id from ordenes o where o.cliente_id = 1");
+        HOT_QUERIES.put("items de una orden",
+                "select i.id from items_orden i where i.orden_id = 1");
+        HOT_QUERIES.put("items de un producto",
+                "select i.id from items_orden i where i.producto_id = 1");
+        HOT_QUERIES.put("items con stock pendiente",
+                "select i.id from items_orden i where i.stock_pendiente = true");
+        HOT_QUERIES.put("usuario por email",
+                "select u.id from users u where u.email_ci = upper('admin@gmail.com')");
+        HOT_QUERIES.put("usuario por username",
+                "select u.id from users u where u.username_ci = upper('admin')");
+        HOT_QUERIES.put("pago por referencia",
+                "select p.id from payment_intents p where p.external_reference = 'x'");
+        HOT_QUERIES.put("pago por preferencia",
+                "select p.id from payment_intents p where p.preference_id = 'x'");
+        HOT_QUERIES.put("pagos por estado",
+                "select p.id from payment_intents p where p.status = 'PENDIENTE'");
+        HOT_QUERIES.put("blog publicado",
+                "select b.id from blog_posts b where b.status = 'PUBLISHED' order by b.published_at desc");
+        HOT_QUERIES.put("blog por slug",
+                "select b.id from blog_posts b where b.slug = 'x'");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void hotQueriesShouldUseAnIndex() {
+        List<String> fullScans = new ArrayList<>();
+        HOT_QUERIES.forEach((name, sql) -> {
+            String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+            if (plan == null || plan.contains("tableScan")) {
+                fullScans.add(name + ": " + plan);
+            }
+        });
+        assertThat(fullScans).isEmpty();
+    }
+}
@@ -0,0 +1,44 @@
+package cl.pokemart.pokemart_backend.integration;
+
+import cl.pokemart.pokemart_backend.config.SequenceAligner;
+import cl.pokemart.pokemart_backend.model.payment.PaymentIntent;
+import cl.pokemart.pokemart_backend.repository.payment.PaymentIntentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Con el paso de migracion activo, una secuencia que quedo detras de filas existentes se reinicia por
+ * delante de max(id) sin recrearla.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sequencesdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "app.sequences.align-on-startup=true"
+})
+@ActiveProfiles("test")
+class SequenceAlignerIntegrationTest {
+
+    @Autowired
+    private SequenceAligner sequenceAligner;
+
+    @Autowired
+    private PaymentIntentRepository paymentIntentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void alignShouldRestartSequencePastExistingRows() {
+        jdbcTemplate.update("insert into payment_intents (id, status, payload_json, created_at, updated_at) "
+                + "values (1000, 'FALLIDO', '{}', current_timestamp, current_timestamp)");
+
+        sequenceAligner.align();
+
+        PaymentIntent saved = paymentIntentRepository.save(PaymentIntent.builder().payloadJson("{}").build());
+        assertThat(saved.getId()).isGreaterThan(1000L);
+    }
+}
@@ -0,0 +1,131 @@
+package cl.pokemart.pokemart_backend.integration;
+
+import cl.pokemart.pokemart_backend.dto.order.OrderItemRequest;
+import cl.pokemart.pokemart_backend.dto.order.OrderRequest;
+import cl.pokemart.pokemart_backend.dto.order.OrderResponse;
+import cl.pokemart.pokemart_backend.model.catalog.Product;
+import cl.pokemart.pokemart_backend.model.payment.PaymentIntent;
+import cl.pokemart.pokemart_backend.model.payment.PaymentIntentStatus;
+import cl.pokemart.pokemart_backend.repository.catalog.ProductRepository;
+import cl.pokemart.pokemart_backend.repository.payment.PaymentIntentRepository;
+import cl.pokemart.pokemart_backend.service.order.OrderService;
+import cl.pokemart.pokemart_backend.service.order.StockReservationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reservas de stock de las preferencias de pago, sin pasar por Mercado Pago. Usa su propia BD H2 y un
+ * TTL de 2 segundos para ver vencer las reservas.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reservationdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "app.inventory.reservation-ttl=2s"
+})
+@ActiveProfiles("test")
+class StockReservationIntegrationTest {
+
+    @Autowired
+    private StockReservationService reservations;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PaymentIntentRepository paymentIntentRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void approvedPaymentShouldConsumeReservationWithoutTakingStockAgain() {
+        Product product = productWithStock(3, 0);
+        int stock = product.getStock();
+        PaymentIntent intent = reserve(product.getId(), 2);
+        assertThat(stockInDb(product.getId())).isEqualTo(stock - 2);
+
+        OrderResponse order = new TransactionTemplate(transactionManager).execute(status ->
+                orderService.createOrder(order(product.getId(), 2), null, reservations.consume(intent.getId())));
+
+        assertThat(order.getItems()).hasSize(1);
+        assertThat(stockInDb(product.getId())).isEqualTo(stock - 2);
+        assertThat(reservationsOf(intent)).isZero();
+        // Ya consumida: vencer o liberar no devuelve nada
+        reservations.release(intent.getId());
+        assertThat(stockInDb(product.getId())).isEqualTo(stock - 2);
+    }
+
+    @Test
+    void reservationShouldRejectWhenStockIsShortAndExpireBackToTheProduct() throws InterruptedException {
+        Product product = productWithStock(2, 1);
+        int stock = product.getStock();
+
+        assertThatThrownBy(() -> reserve(product.getId(), stock + 1))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Stock insuficiente");
+        assertThat(stockInDb(product.getId())).isEqualTo(stock);
+
+        PaymentIntent intent = reserve(product.getId(), 1);
+        assertThat(stockInDb(product.getId())).isEqualTo(stock - 1);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (reservationsOf(intent) > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertThat(reservationsOf(intent)).isZero();
+        assertThat(stockInDb(product.getId())).isEqualTo(stock);
+        // La aprobacion tardia ya no encuentra reserva y toma el stock como un checkout normal
+        assertThat(reservations.consume(intent.getId())).isEqualTo(Map.of());
+    }
+
+    private PaymentIntent reserve(Long productId, int quantity) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            PaymentIntent intent = paymentIntentRepository.save(PaymentIntent.builder()
+                    .status(PaymentIntentStatus.PENDIENTE)
+                    .payloadJson("{}")
+                    .build());
+            reservations.reserve(intent, List.of(new OrderItemRequest(productId, quantity)));
+            return intent;
+        });
+    }
+
+    private Product productWithStock(int minimum, int skip) {
+        return productRepository.findAll().stream()
+                .filter(p -> Boolean.TRUE.equals(p.getActive()) && p.getStock() != null && p.getStock() >= minimum)
+                .skip(skip)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private int stockInDb(Long productId) {
+        return jdbcTemplate.queryForObject("select stock from products where id = ?", Integer.class, productId);
+    }
+
+    private int reservationsOf(PaymentIntent intent) {
+        return jdbcTemplate.queryForObject("select count(*) from stock_reservations where payment_intent_id = ?",
+                Integer.class, intent.getId());
+    }
+
+    private OrderRequest order(Long productId, int quantity) {
+        return new OrderRequest("Ash", "Ketchum", "ash@pallet.cl", null, "Kanto", "Pueblo Paleta",
+                "Calle 1", null, null, "mercado_pago", BigDecimal.ZERO, List.of(new OrderItemRequest(productId, quantity)));
+    }
+}
@@ -0,0 +1,57 @@
+package cl.pokemart.pokemart_backend.service;
+
+import cl.pokemart.pokemart_backend.model.catalog.Product;
+import cl.pokemart.pokemart_backend.model.catalog.ProductOffer;
+import cl.pokemart.pokemart_backend.service.catalog.ActiveOfferIndex;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ActiveOfferIndexTest {
+
+    @Test
+    void shouldPickHighestDiscountPerProduct() {
+        Product pokeBall = Product.builder().id(1L).name("Poke Ball").build();
+        Product potion = Product.builder().id(2L).name("Potion").build();
+
+        ActiveOfferIndex index = ActiveOfferIndex.of(List.of(
+                offer(10L, pokeBall, 10, LocalDateTime.now().plusDays(1)),
+                offer(11L, pokeBall, 25, null),
+                offer(12L, potion, 15, LocalDateTime.now().plusDays(1)),
+                offer(13L, pokeBall, 25, LocalDateTime.now().plusHours(1))
+        ));
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.find(1L)).get().extracting(ProductOffer::getId).isEqualTo(11L);
+        assertThat(index.find(2L)).get().extracting(ProductOffer::getId).isEqualTo(12L);
+        assertThat(index.find(3L)).isEmpty();
+    }
+
+    @Test
+    void shouldIgnoreExpiredOrInactiveOffers() {
+        Product pokeBall = Product.builder().id(1L).name("Poke Ball").build();
+        ProductOffer inactive = offer(20L, pokeBall, 50, null);
+        inactive.setActive(false);
+
+        ActiveOfferIndex index = ActiveOfferIndex.of(List.of(
+                inactive,
+                offer(21L, pokeBall, 40, LocalDateTime.now().minusMinutes(1)),
+                offer(22L, pokeBall, 5, null)
+        ));
+
+        assertThat(index.find(1L)).get().extracting(ProductOffer::getId).isEqualTo(22L);
+    }
+
+    private ProductOffer offer(Long id, Product product, int pct, LocalDateTime endsAt) {
+        return ProductOffer.builder()
+                .id(id)
+                .product(product)
+                .discountPct(pct)
+                .endsAt(endsAt)
+                .active(true)
+                .build();
+    }
+}
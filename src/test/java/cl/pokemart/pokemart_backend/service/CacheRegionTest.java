@@ -0,0 +1,170 @@
+package cl.pokemart.pokemart_backend.service;
+
+import cl.pokemart.pokemart_backend.config.CacheConfig;
+import cl.pokemart.pokemart_backend.config.CacheProperties;
+import cl.pokemart.pokemart_backend.service.common.CacheRegion;
+import cl.pokemart.pokemart_backend.service.common.CacheRegions;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CacheRegionTest {
+
+    private CacheRegion<List<String>> region;
+
+    @BeforeEach
+    void setup() {
+        CacheProperties properties = new CacheProperties();
+        CacheProperties.Region config = new CacheProperties.Region();
+        config.setTtl(Duration.ofMillis(300));
+        properties.getRegions().put(CacheConfig.CATALOG_ADMIN_PRODUCTS, config);
+        region = new CacheConfig().cacheRegions(properties).get(CacheConfig.CATALOG_ADMIN_PRODUCTS);
+    }
+
+    @Test
+    void maximumWeightShouldCountElementsOfCachedLists() {
+        CacheProperties properties = new CacheProperties();
+        CacheProperties.Region config = new CacheProperties.Region();
+        config.setMaximumWeight(100L);
+        properties.getRegions().put(CacheConfig.CATALOG_ADMIN_OFFERS, config);
+        CacheRegions regions = new CacheConfig().cacheRegions(properties);
+        CacheRegion<List<String>> weighted = regions.get(CacheConfig.CATALOG_ADMIN_OFFERS);
+
+        weighted.put("all", List.of("a", "b", "c"));
+        weighted.put("cat:x", List.of());
+
+        Cache<Object, Object> cache = regions.nativeCaches().get(CacheConfig.CATALOG_ADMIN_OFFERS);
+        cache.cleanUp();
+        long weight = cache.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+        assertThat(weight).isEqualTo(4);
+    }
+
+    @Test
+    void shouldEvictOnlyMatchingEntries() {
+        region.put("all", List.of("a", "b"));
+        region.put("cat:x", List.of("b"));
+        region.put("cat:y", List.of("c"));
+
+        region.evictIf(list -> list.contains("b"));
+
+        assertThat(region.get("all")).isNull();
+        assertThat(region.get("cat:x")).isNull();
+        assertThat(region.get("cat:y")).containsExactly("c");
+    }
+
+    @Test
+    void patchShouldNotExtendTimeToLive() throws InterruptedException {
+        region.put("all", List.of("a", "b"));
+        Thread.sleep(200);
+
+        region.patchAll(list -> list.contains("b") ? List.of("a", "B") : list);
+        assertThat(region.get("all")).containsExactly("a", "B");
+
+        Thread.sleep(150);
+        assertThat(region.get("all")).isNull();
+    }
+
+    @Test
+    void concurrentMissesShouldRunLoaderOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<List<String>> leader = CompletableFuture.supplyAsync(() -> region.getOrLoad("all", () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return List.of("a");
+        }));
+        assertThat(loading.await(1, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<List<String>> follower = CompletableFuture.supplyAsync(() -> region.getOrLoad("all", () -> {
+            loads.incrementAndGet();
+            return List.of("otro");
+        }));
+        Thread.sleep(50);
+        release.countDown();
+
+        assertThat(leader.get(1, TimeUnit.SECONDS)).containsExactly("a");
+        assertThat(follower.get(1, TimeUnit.SECONDS)).containsExactly("a");
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void failedReloadShouldServeStaleValue() throws InterruptedException {
+        region.getOrLoad("all", () -> List.of("a"));
+        Thread.sleep(350);
+
+        List<String> result = region.getOrLoad("all", () -> {
+            throw new IllegalStateException("bd caida");
+        });
+
+        assertThat(result).containsExactly("a");
+        assertThat(region.get("all")).isNull();
+    }
+
+    @Test
+    void failedLoadWithoutStaleValueShouldPropagate() {
+        assertThatThrownBy(() -> region.getOrLoad("all", () -> {
+            throw new IllegalStateException("bd caida");
+        })).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void loadOverlappingInvalidationShouldNotBeCached() {
+        List<String> result = region.getOrLoad("all", () -> {
+            region.evict("all");
+            return List.of("viejo");
+        });
+
+        assertThat(result).containsExactly("viejo");
+        assertThat(region.get("all")).isNull();
+    }
+
+    @Test
+    void loadOverlappingInvalidationOfAnotherKeyShouldBeCached() {
+        region.put("cat:x", List.of("b"));
+
+        region.getOrLoad("all", () -> {
+            region.evict("cat:x");
+            region.evictIf(list -> list.contains("z"));
+            return List.of("a");
+        });
+
+        assertThat(region.get("all")).containsExactly("a");
+        assertThat(region.get("cat:x")).isNull();
+    }
+
+    @Test
+    void loadOverlappingMatchingEvictionShouldNotBeCachedButPatchShouldApply() {
+        region.getOrLoad("all", () -> {
+            region.evictIf(list -> list.contains("b"));
+            return List.of("a", "b");
+        });
+        assertThat(region.get("all")).isNull();
+
+        List<String> result = region.getOrLoad("all", () -> {
+            region.patchAll(list -> list.contains("b") ? List.of("a", "B") : list);
+            return List.of("a", "b");
+        });
+        assertThat(result).containsExactly("a", "B");
+        assertThat(region.get("all")).containsExactly("a", "B");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
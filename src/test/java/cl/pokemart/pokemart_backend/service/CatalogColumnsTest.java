@@ -0,0 +1,75 @@
+package cl.pokemart.pokemart_backend.service;
+
+import cl.pokemart.pokemart_backend.dto.catalog.ProductResponse;
+import cl.pokemart.pokemart_backend.service.catalog.CatalogColumns;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogColumnsTest {
+
+    private final CatalogColumns columns = CatalogColumns.of(List.of(
+            product(1L, "Medicina", "300", 10, 4.5, 10),
+            product(2L, "Medicina", "700", 0, 3.0, null),
+            product(3L, "Pokeballs", "200", 50, 4.0, null),
+            product(4L, "Pokeballs", "1200", 5, 5.0, 25),
+            product(5L, "Pokeballs", "900", 5, 5.0, null)
+    ), Arrays.asList("medicina", "medicina", "pokeballs", "pokeballs", "pokeballs-edicion"));
+
+    @Test
+    void shouldIntersectAllFilters() {
+        CatalogColumns.Result result = columns.query(new CatalogColumns.Filter(
+                Set.of("pokeballs"), new BigDecimal("100"), new BigDecimal("1500"), false, 4.0, true, 10));
+
+        assertThat(result.items()).extracting(ProductResponse::getId).containsExactly(3L, 4L);
+        assertThat(result.total()).isEqualTo(2);
+        assertThat(result.onOfferCount()).isEqualTo(1);
+        assertThat(result.minPrice()).isEqualByComparingTo("200");
+        assertThat(result.maxPrice()).isEqualByComparingTo("1200");
+    }
+
+    @Test
+    void categoryCountsShouldIgnoreOwnFilter() {
+        CatalogColumns.Result result = columns.query(new CatalogColumns.Filter(
+                Set.of("medicina"), null, null, false, null, true, 10));
+
+        assertThat(result.items()).extracting(ProductResponse::getId).containsExactly(1L);
+        assertThat(result.categoryCounts()).containsEntry("medicina", 1).containsEntry("pokeballs", 2);
+    }
+
+    @Test
+    void categoriesWithSameNameShouldStaySeparate() {
+        CatalogColumns.Result result = columns.query(new CatalogColumns.Filter(
+                Set.of("pokeballs-edicion"), null, null, false, null, false, 10));
+
+        assertThat(result.items()).extracting(ProductResponse::getId).containsExactly(5L);
+        assertThat(result.categoryCounts()).containsEntry("pokeballs", 2).containsEntry("pokeballs-edicion", 1);
+    }
+
+    @Test
+    void shouldLimitItemsButCountEverything() {
+        CatalogColumns.Result result = columns.query(new CatalogColumns.Filter(
+                null, null, null, true, null, false, 1));
+
+        assertThat(result.items()).extracting(ProductResponse::getId).containsExactly(1L);
+        assertThat(result.total()).isEqualTo(2);
+        assertThat(result.inStockCount()).isEqualTo(2);
+    }
+
+    private ProductResponse product(Long id, String category, String price, int stock, double rating, Integer discount) {
+        return ProductResponse.builder()
+                .id(id)
+                .nombre("P" + id)
+                .categoria(category)
+                .precio(new BigDecimal(price))
+                .stock(stock)
+                .reviewAvg(rating)
+                .offer(discount != null ? ProductResponse.OfferInfo.builder().discountPct(discount).build() : null)
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+package cl.pokemart.pokemart_backend.service;
+
+import cl.pokemart.pokemart_backend.dto.catalog.ProductResponse;
+import cl.pokemart.pokemart_backend.model.catalog.Category;
+import cl.pokemart.pokemart_backend.model.catalog.Product;
+import cl.pokemart.pokemart_backend.model.catalog.ProductOffer;
+import cl.pokemart.pokemart_backend.repository.catalog.ProductRow;
+import cl.pokemart.pokemart_backend.repository.catalog.ProductSort;
+import cl.pokemart.pokemart_backend.service.catalog.ActiveOfferIndex;
+import cl.pokemart.pokemart_backend.service.catalog.CatalogColumns;
+import cl.pokemart.pokemart_backend.service.catalog.CatalogSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogSnapshotTest {
+
+    private static final List<Category> CATEGORIES = List.of(
+            Category.builder().slug("pokeballs").name("Pokeballs").build(),
+            Category.builder().slug("medicina").name("Medicina").build());
+
+    private final CatalogSnapshot snapshot = CatalogSnapshot.build(1L, System.nanoTime(),
+            List.of(
+                    row(1L, "Poke Ball", "200", "Pokeballs", 3),
+                    row(2L, "Pocion", "300", "Medicina", 2),
+                    row(3L, "Super Ball", "600", "Pokeballs", 1)
+            ),
+            ActiveOfferIndex.of(List.of(ProductOffer.builder()
+                    .id(10L)
+                    .product(Product.builder().id(3L).build())
+                    .discountPct(20)
+                    .active(true)
+                    .build())),
+            CATEGORIES);
+
+    @Test
+    void shouldIndexProductsByIdCategoryAndOffer() {
+        assertThat(snapshot.products()).extracting(ProductResponse::getId).containsExactly(1L, 2L, 3L);
+        assertThat(snapshot.products("POKEBALLS")).extracting(ProductResponse::getId).containsExactly(1L, 3L);
+        assertThat(snapshot.products("desconocida")).isEmpty();
+        assertThat(snapshot.product(2L)).get().extracting(ProductResponse::getNombre).isEqualTo("Pocion");
+        assertThat(snapshot.offers()).extracting(ProductResponse::getId).containsExactly(3L);
+        assertThat(snapshot.estimatedBytes()).isPositive();
+    }
+
+    @Test
+    void shouldWalkKeysetPagesInMemory() {
+        List<Long> ids = new ArrayList<>();
+        CatalogSnapshot.Page page = snapshot.page(ProductSort.PRICE_DESC, null, null, 2);
+        page.items().forEach(p -> ids.add(p.getId()));
+        assertThat(page.hasMore()).isTrue();
+
+        ProductResponse last = page.items().get(page.items().size() - 1);
+        page = snapshot.page(ProductSort.PRICE_DESC, page.lastValue(), last.getId(), 2);
+        page.items().forEach(p -> ids.add(p.getId()));
+
+        assertThat(page.hasMore()).isFalse();
+        assertThat(ids).containsExactly(3L, 2L, 1L);
+        assertThat(snapshot.page(ProductSort.DISCOUNT, null, null, 1).items())
+                .extracting(ProductResponse::getId).containsExactly(3L);
+    }
+
+    @Test
+    void reviewPatchShouldPublishNewCopyAndKeepOriginal() {
+        CatalogSnapshot patched = snapshot.withReviewStats(2L, 2L, 4, 5.0);
+
+        assertThat(patched).isNotSameAs(snapshot);
+        assertThat(patched.generation()).isEqualTo(2L);
+        assertThat(patched.product(2L)).get().extracting(ProductResponse::getReviewAvg).isEqualTo(5.0);
+        assertThat(snapshot.product(2L)).get().extracting(ProductResponse::getReviewAvg).isEqualTo(0.0);
+        assertThat(patched.page(ProductSort.RATING, null, null, 1).items())
+                .extracting(ProductResponse::getId).containsExactly(2L);
+        assertThat(snapshot.withReviewStats(3L, 99L, 1, 1.0)).isSameAs(snapshot);
+        assertThat(patched.page(ProductSort.NAME, null, null, 3).items())
+                .extracting(ProductResponse::getId).containsExactly(2L, 1L, 3L);
+        assertThat(patched.products("medicina")).extracting(ProductResponse::getReviewAvg).containsExactly(5.0);
+        assertThat(patched.columns().query(new CatalogColumns.Filter(null, null, null, false, 4.5, false, 10))
+                .items()).extracting(ProductResponse::getId).containsExactly(2L);
+    }
+
+    @Test
+    void productPatchShouldMoveProductsAcrossOrdersCategoriesAndOffers() {
+        List<Category> renamed = List.of(
+                Category.builder().slug("pokeballs").name("Poke Balls").build(),
+                Category.builder().slug("medicina").name("Medicina").build(),
+                Category.builder().slug("bayas").name("Bayas").build());
+        CatalogSnapshot patched = snapshot.withProducts(2L, Set.of(1L), List.of(row(1L, "Baya Aranja", "50", "Bayas", 3)),
+                ActiveOfferIndex.of(List.of(ProductOffer.builder()
+                        .id(12L)
+                        .product(Product.builder().id(1L).build())
+                        .discountPct(5)
+                        .active(true)
+                        .build())),
+                renamed);
+
+        assertThat(patched.categories()).containsEntry("pokeballs", "Poke Balls").containsKey("bayas");
+        assertThat(patched.products("pokeballs")).extracting(ProductResponse::getId).containsExactly(3L);
+        assertThat(patched.products("bayas")).extracting(ProductResponse::getId).containsExactly(1L);
+        assertThat(patched.offers()).extracting(ProductResponse::getId).containsExactly(1L, 3L);
+        assertThat(patched.page(ProductSort.PRICE, null, null, 3).items())
+                .extracting(ProductResponse::getId).containsExactly(1L, 2L, 3L);
+        assertThat(patched.page(ProductSort.DISCOUNT, null, null, 3).items())
+                .extracting(ProductResponse::getId).containsExactly(3L, 1L, 2L);
+        assertThat(patched.columns().query(new CatalogColumns.Filter(Set.of("bayas"), null, null, true, null, false, 10))
+                .items()).extracting(ProductResponse::getId).containsExactly(1L);
+    }
+
+    @Test
+    void productPatchShouldReplaceOnlyChangedProducts() {
+        ProductRow renamed = row(2L, "Pocion Max", "900", "Medicina", 2);
+        ProductRow added = row(4L, "Ultra Ball", "1200", "Pokeballs", 0);
+        CatalogSnapshot patched = snapshot.withProducts(2L, Set.of(2L, 3L, 4L), List.of(added, renamed),
+                ActiveOfferIndex.of(List.of(ProductOffer.builder()
+                        .id(11L)
+                        .product(Product.builder().id(4L).build())
+                        .discountPct(10)
+                        .active(true)
+                        .build())),
+                CATEGORIES);
+
+        // 3 ya no esta activo, 2 cambia y 4 es nuevo; 1 se conserva tal cual
+        assertThat(patched.products()).extracting(ProductResponse::getId).containsExactly(1L, 2L, 4L);
+        assertThat(patched.product(1L).get()).isSameAs(snapshot.product(1L).get());
+        assertThat(patched.product(2L)).get().extracting(ProductResponse::getNombre).isEqualTo("Pocion Max");
+        assertThat(patched.offers()).extracting(ProductResponse::getId).containsExactly(4L);
+        assertThat(patched.products("pokeballs")).extracting(ProductResponse::getId).containsExactly(1L, 4L);
+        assertThat(patched.page(ProductSort.PRICE_DESC, null, null, 1).items())
+                .extracting(ProductResponse::getId).containsExactly(4L);
+        assertThat(snapshot.products()).extracting(ProductResponse::getId).containsExactly(1L, 2L, 3L);
+    }
+
+    private ProductRow row(Long id, String name, String price, String category, int daysAgo) {
+        return new ProductRow(id, name, null, new BigDecimal(price), 5, null, 0L, 0.0, true,
+                category, category.toLowerCase(), 5, LocalDateTime.now().minusDays(daysAgo));
+    }
+}
@@ -11,21 +11,30 @@ import cl.pokemart.pokemart_backend.repository.catalog.ProductOfferRepository;
 import cl.pokemart.pokemart_backend.repository.catalog.ProductRepository;
 import cl.pokemart.pokemart_backend.repository.order.OrderRepository;
 import cl.pokemart.pokemart_backend.repository.user.UserRepository;
+import cl.pokemart.pokemart_backend.service.order.OrderNumberAllocator;
 import cl.pokemart.pokemart_backend.service.order.OrderService;
+import cl.pokemart.pokemart_backend.service.order.StockAllocator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class OrderServiceTest {
@@ -38,6 +47,10 @@ class OrderServiceTest {
     private ProductOfferRepository productOfferRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private StockAllocator stockAllocator;
+    @Mock
+    private OrderNumberAllocator orderNumbers;
 
     @InjectMocks
     private OrderService orderService;
@@ -56,6 +69,10 @@ class OrderServiceTest {
                 .category(Category.builder().id(1L).slug("pokeballs").build())
                 .build();
 
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+        when(stockAllocator.allocate(any())).thenReturn(List.of());
+        when(orderNumbers.next()).thenReturn("ORD-0099");
+
         // Simular persistencia para asignar ID al guardar
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
             Order o = invocation.getArgument(0);
@@ -77,8 +94,7 @@ class OrderServiceTest {
                 .endsAt(LocalDateTime.now().plusDays(1))
                 .build();
 
-        when(productRepository.findActiveByIdForUpdate(1L)).thenReturn(Optional.of(product));
-        when(productOfferRepository.findActive(any(LocalDateTime.class))).thenReturn(List.of(offer));
+        when(productOfferRepository.findActiveForProducts(any(LocalDateTime.class), any())).thenReturn(List.of(offer));
 
         OrderRequest request = new OrderRequest(
                 "Tester",
@@ -101,6 +117,9 @@ class OrderServiceTest {
         assertThat(response.getId()).isNotNull();
         // 10% descuento sobre 1000 => 900 cada uno, 2 unidades = 1800 total
         assertThat(response.getTotal()).isEqualByComparingTo(BigDecimal.valueOf(1800));
+        // Un solo save, con el numero ya asignado
+        verify(orderRepository).save(captor.capture());
+        assertThat(captor.getValue().getNumeroOrden()).isEqualTo("ORD-0099");
     }
 
     @Test
@@ -115,8 +134,7 @@ class OrderServiceTest {
                 .endsAt(LocalDateTime.now().plusHours(1))
                 .build();
 
-        when(productRepository.findActiveByIdForUpdate(1L)).thenReturn(Optional.of(product));
-        when(productOfferRepository.findActive(any(LocalDateTime.class))).thenReturn(List.of(offer));
+        when(productOfferRepository.findActiveForProducts(any(LocalDateTime.class), any())).thenReturn(List.of(offer));
 
         OrderRequest request = new OrderRequest(
                 "Tester",
@@ -139,4 +157,64 @@ class OrderServiceTest {
         assertThat(response.getItems()).hasSize(1);
         assertThat(response.getItems().get(0).getPrecioUnitario()).isEqualByComparingTo(BigDecimal.valueOf(10));
     }
+
+    @Test
+    void shouldMergeRepeatedLinesIntoOneDecrement() {
+        when(productOfferRepository.findActiveForProducts(any(LocalDateTime.class), any())).thenReturn(List.of());
+
+        OrderResponse response = orderService.createOrder(request(List.of(
+                new OrderItemRequest(1L, 2),
+                new OrderItemRequest(1L, 3))), null);
+
+        verify(stockAllocator).allocate(Map.of(1L, 5));
+        assertThat(response.getItems()).hasSize(1);
+        assertThat(response.getItems().get(0).getCantidad()).isEqualTo(5);
+        assertThat(response.getTotal()).isEqualByComparingTo(BigDecimal.valueOf(5000));
+    }
+
+    @Test
+    void shouldPriceAllLinesFromOneOfferQuery() {
+        Product potion = Product.builder()
+                .id(2L)
+                .name("Pocion")
+                .price(BigDecimal.valueOf(500))
+                .stock(10)
+                .active(true)
+                .build();
+        ProductOffer offer = ProductOffer.builder()
+                .id(8L)
+                .product(potion)
+                .discountPct(20)
+                .active(true)
+                .build();
+        when(productRepository.findAllById(any())).thenReturn(List.of(product, potion));
+        when(productOfferRepository.findActiveForProducts(any(LocalDateTime.class), any())).thenReturn(List.of(offer));
+
+        OrderResponse response = orderService.createOrder(request(List.of(
+                new OrderItemRequest(1L, 1),
+                new OrderItemRequest(2L, 2))), null);
+
+        verify(productOfferRepository).findActiveForProducts(any(LocalDateTime.class), eq(Set.of(1L, 2L)));
+        verify(productOfferRepository, never()).findActive(any());
+        // 1000 + 2 x 400; descuento 2 x 100
+        assertThat(response.getTotal()).isEqualByComparingTo(BigDecimal.valueOf(1800));
+        assertThat(response.getDescuento()).isEqualByComparingTo(BigDecimal.valueOf(200));
+    }
+
+    @Test
+    void shouldReportInsufficientStockWhenConditionalUpdateMisses() {
+        product.setStock(3);
+        when(stockAllocator.allocate(any())).thenReturn(List.of(1L));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        assertThatThrownBy(() -> orderService.createOrder(request(List.of(new OrderItemRequest(1L, 4))), null))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Stock insuficiente para Poke Ball (disp: 3)");
+        verify(orderRepository, never()).save(any());
+    }
+
+    private OrderRequest request(List<OrderItemRequest> items) {
+        return new OrderRequest("Tester", "Unit", "tester@example.com", "+56900000000", "Kanto", "Ciudad Central",
+                "Calle 1", "Depto 2", "Notas", "credit", BigDecimal.ZERO, items);
+    }
 }
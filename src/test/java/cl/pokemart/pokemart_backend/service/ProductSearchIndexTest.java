@@ -0,0 +1,68 @@
+package cl.pokemart.pokemart_backend.service;
+
+import cl.pokemart.pokemart_backend.repository.catalog.ProductRow;
+import cl.pokemart.pokemart_backend.service.catalog.ProductSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new ProductSearchIndex();
+        index.ensureBuilt(() -> List.of(
+                row(1L, "Poción", "Restaura 20 PS", "Medicina"),
+                row(2L, "Superpoción", "Restaura 50 PS", "Medicina"),
+                row(3L, "Poke Ball", "Atrapa Pokémon salvajes", "Pokeballs"),
+                row(4L, "Piña Latano", "Baya que confunde si no gusta", "Bayas")
+        ));
+    }
+
+    @Test
+    void shouldFoldAccentsAndEnye() {
+        assertThat(index.search("POCION", 10)).containsExactly(1L);
+        assertThat(index.search("pina", 10)).containsExactly(4L);
+        assertThat(index.search("pokemon", 10)).containsExactly(3L);
+    }
+
+    @Test
+    void shouldMatchPrefixesAndRankNameAboveDescription() {
+        assertThat(index.search("resta", 10)).containsExactlyInAnyOrder(1L, 2L);
+        // "poke" es prefijo del nombre de 3 y de la categoria; en 3 tambien aparece en la descripcion
+        assertThat(index.search("poke", 10)).first().isEqualTo(3L);
+    }
+
+    @Test
+    void shouldTolerateOneTypoAndRequireAllTerms() {
+        assertThat(index.search("pocoin", 10)).isEmpty();
+        assertThat(index.search("pocion", 10)).containsExactly(1L);
+        assertThat(index.search("pocian", 10)).containsExactly(1L);
+        assertThat(index.search("restaura 50", 10)).containsExactly(2L);
+        assertThat(index.search("baya medicina", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldApplyIncrementalUpdates() {
+        index.upsert(row(5L, "Éter", "Restaura PP", "Medicina"));
+        assertThat(index.search("eter", 10)).containsExactly(5L);
+
+        index.upsert(new ProductRow(1L, "Poción", "Restaura 20 PS", BigDecimal.ONE, 1, null, 0L, 0.0,
+                false, "Medicina", "medicina", null, null));
+        assertThat(index.search("pocion", 10)).isEmpty();
+
+        index.remove(5L);
+        assertThat(index.search("eter", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    private ProductRow row(Long id, String name, String description, String category) {
+        return new ProductRow(id, name, description, BigDecimal.ONE, 1, null, 0L, 0.0, true, category, category.toLowerCase(), null, null);
+    }
+}
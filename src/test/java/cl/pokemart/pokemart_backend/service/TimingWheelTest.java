@@ -0,0 +1,55 @@
+package cl.pokemart.pokemart_backend.service;
+
+import cl.pokemart.pokemart_backend.service.common.TimingWheel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private final List<String> fired = new CopyOnWriteArrayList<>();
+    private final TimingWheel<String> wheel = new TimingWheel<>("test-wheel", Duration.ofMillis(10), 8, fired::addAll);
+
+    @AfterEach
+    void close() {
+        wheel.close();
+    }
+
+    @Test
+    void shouldFireInDeadlineOrderAcrossRounds() throws InterruptedException {
+        // 8 ranuras de 10ms: 250ms da varias vueltas
+        wheel.schedule("tarde", Duration.ofMillis(250));
+        wheel.schedule("pronto", Duration.ofMillis(30));
+        wheel.schedule("medio", Duration.ofMillis(120));
+
+        awaitFired(3);
+
+        assertThat(fired).containsExactly("pronto", "medio", "tarde");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cancelledTimersShouldNotFire() throws InterruptedException {
+        wheel.schedule("cancelada", Duration.ofMillis(40));
+        wheel.schedule("cancelada", Duration.ofMillis(60));
+        wheel.schedule("vigente", Duration.ofMillis(80));
+        wheel.cancel("cancelada");
+
+        awaitFired(1);
+        Thread.sleep(50);
+
+        assertThat(fired).containsExactly("vigente");
+    }
+
+    private void awaitFired(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (fired.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}